@@ -7,10 +7,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.ApproveBookingBatchRequest;
+import ru.practicum.shareit.booking.dto.CreateBookingBatchRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 import ru.practicum.shareit.booking.dto.State;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,11 +21,13 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         RestTemplateBuilder builder,
+                         HttpComponentsClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -31,22 +36,43 @@ public class BookingClient extends BaseClient {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> createBookings(long userId, CreateBookingBatchRequest requestDto) {
+        return post("/batch", userId, requestDto);
+    }
+
     public ResponseEntity<Object> setApproved(Long bookingId, Boolean approved, Long ownerId) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", ownerId, parameters, null);
     }
 
+    public ResponseEntity<Object> setApprovedBatch(ApproveBookingBatchRequest requestDto, Boolean approved, Long ownerId) {
+        Map<String, Object> parameters = Map.of("approved", approved);
+        return patch("/batch?approved={approved}", ownerId, parameters, requestDto);
+    }
+
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookerBookings(long userId, State state) {
-        Map<String, Object> parameters = Map.of("state", state.name());
-        return get("?state={state}", userId, parameters);
+    public ResponseEntity<Object> getBookerBookings(long userId, State state, String cursor, Integer size) {
+        return get(withPage("?state={state}", cursor), userId, pageParameters(state, cursor, size));
+    }
+
+    public ResponseEntity<Object> getOwnerBookings(long userId, State state, String cursor, Integer size) {
+        return get(withPage("/owner?state={state}", cursor), userId, pageParameters(state, cursor, size));
+    }
+
+    private static String withPage(String path, String cursor) {
+        return cursor == null ? path + "&size={size}" : path + "&size={size}&cursor={cursor}";
     }
 
-    public ResponseEntity<Object> getOwnerBookings(long userId, State state) {
-        Map<String, Object> parameters = Map.of("state", state.name());
-        return get("/owner?state={state}", userId, parameters);
+    private static Map<String, Object> pageParameters(State state, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.ApproveBookingBatchRequest;
+import ru.practicum.shareit.booking.dto.CreateBookingBatchRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 import ru.practicum.shareit.booking.dto.State;
 
@@ -21,6 +25,13 @@ public class BookingController {
         return bookingClient.createBooking(bookerId, createBookingRequest);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ResponseEntity<Object> createBookings(@Valid @RequestBody CreateBookingBatchRequest createBookingBatchRequest,
+                                                 @RequestHeader(value = "X-Sharer-User-Id") Long bookerId) {
+        return bookingClient.createBookings(bookerId, createBookingBatchRequest);
+    }
+
     @PatchMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<Object> setApproved(@PathVariable Long bookingId,
@@ -29,6 +40,14 @@ public class BookingController {
         return bookingClient.setApproved(bookingId, approved, ownerId);
     }
 
+    @PatchMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> setApprovedBatch(@Valid @RequestBody ApproveBookingBatchRequest approveBookingBatchRequest,
+                                                   @RequestParam Boolean approved,
+                                                   @RequestHeader(value = "X-Sharer-User-Id") Long ownerId) {
+        return bookingClient.setApprovedBatch(approveBookingBatchRequest, approved, ownerId);
+    }
+
     @GetMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<Object> getBooking(@PathVariable Long bookingId,
@@ -40,14 +59,18 @@ public class BookingController {
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<Object> getBookerBookings(@RequestHeader(value = "X-Sharer-User-Id") Long bookerId,
-                                                    @RequestParam(required = false, defaultValue = "ALL") State state) {
-        return bookingClient.getBookerBookings(bookerId, state);
+                                                    @RequestParam(required = false, defaultValue = "ALL") State state,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @Positive @Max(100) @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return bookingClient.getBookerBookings(bookerId, state, cursor, size);
     }
 
     @GetMapping("/owner")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<Object> getOwnerBookings(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
-                                                   @RequestParam(required = false, defaultValue = "ALL") State state) {
-        return bookingClient.getOwnerBookings(ownerId, state);
+                                                   @RequestParam(required = false, defaultValue = "ALL") State state,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @Positive @Max(100) @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return bookingClient.getOwnerBookings(ownerId, state, cursor, size);
     }
 }
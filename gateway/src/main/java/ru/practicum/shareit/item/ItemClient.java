@@ -12,6 +12,7 @@ import ru.practicum.shareit.item.dto.CreateCommentRequest;
 import ru.practicum.shareit.item.dto.CreateItemRequest;
 import ru.practicum.shareit.item.dto.UpdateItemRequest;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -19,11 +20,13 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      HttpComponentsClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -40,16 +43,30 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, ownerId);
     }
 
-    public ResponseEntity<Object> getAllUserItems(Long ownerId) {
-        return get("", ownerId);
+    public ResponseEntity<Object> getAllUserItems(Long ownerId, String cursor, Integer size) {
+        return getPage("", ownerId, cursor, size);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Long ownerId) {
-        Map<String, Object> parameters = Map.of("text", text);
-        return get("/search?text={text}", ownerId, parameters);
+    public ResponseEntity<Object> getItemComments(Long itemId, Long userId, String cursor, Integer size) {
+        return getPage("/" + itemId + "/comments", userId, cursor, size);
+    }
+
+    public ResponseEntity<Object> searchItems(String text, Integer size, Long ownerId) {
+        Map<String, Object> parameters = Map.of("text", text, "size", size);
+        return get("/search?text={text}&size={size}", ownerId, parameters);
     }
 
     public ResponseEntity<Object> addComment(CreateCommentRequest createCommentRequest, Long authorId, Long itemId) {
         return post("/" + itemId + "/comment", authorId, createCommentRequest);
     }
+
+    private ResponseEntity<Object> getPage(String path, Long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", size);
+        if (cursor == null) {
+            return get(path + "?size={size}", userId, parameters);
+        }
+        parameters.put("cursor", cursor);
+        return get(path + "?size={size}&cursor={cursor}", userId, parameters);
+    }
 }
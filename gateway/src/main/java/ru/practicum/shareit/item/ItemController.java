@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -39,15 +41,27 @@ public class ItemController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getAllUserItems(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId) {
-        return itemClient.getAllUserItems(ownerId);
+    public ResponseEntity<Object> getAllUserItems(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @Positive @Max(100) @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return itemClient.getAllUserItems(ownerId, cursor, size);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> getItemComments(@PathVariable Long itemId,
+                                                  @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @Positive @Max(100) @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return itemClient.getItemComments(itemId, userId, cursor, size);
     }
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<Object> searchItems(@RequestParam String text,
+                                              @Positive @Max(100) @RequestParam(required = false, defaultValue = "20") Integer size,
                                               @RequestHeader(value = "X-Sharer-User-Id") Long ownerId) {
-        return itemClient.searchItems(text, ownerId);
+        return itemClient.searchItems(text, size, ownerId);
     }
 
     @PostMapping("/{itemId}/comment")
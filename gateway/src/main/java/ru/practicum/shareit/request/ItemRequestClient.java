@@ -10,16 +10,21 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.RequestCreateDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             RestTemplateBuilder builder,
+                             HttpComponentsClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -32,8 +37,14 @@ public class ItemRequestClient extends BaseClient {
         return get("", requesterId);
     }
 
-    public ResponseEntity<Object> findAllRequests() {
-        return get("/all");
+    public ResponseEntity<Object> findAllRequests(Long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", size);
+        if (cursor == null) {
+            return get("/all?size={size}", userId, parameters);
+        }
+        parameters.put("cursor", cursor);
+        return get("/all?size={size}&cursor={cursor}", userId, parameters);
     }
 
     public ResponseEntity<Object> findRequestById(Long requestId) {
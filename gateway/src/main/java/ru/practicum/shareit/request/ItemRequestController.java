@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -29,8 +31,10 @@ public class ItemRequestController {
 
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getAllRequests() {
-        return requestClient.findAllRequests();
+    public ResponseEntity<Object> getAllRequests(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @Positive @Max(100) @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return requestClient.findAllRequests(userId, cursor, size);
     }
 
     @GetMapping("/{requestId}")
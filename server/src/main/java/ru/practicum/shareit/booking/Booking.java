@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class Booking {
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @ToString.Exclude
@@ -40,6 +41,10 @@ public class Booking {
     @Column(name = "status", nullable = false, length = 20)
     private Status status;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
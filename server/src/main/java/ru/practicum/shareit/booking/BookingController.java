@@ -2,12 +2,19 @@ package ru.practicum.shareit.booking;
 
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.ApproveBookingBatchRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.CreateBookingBatchRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.conditional.EntityTag;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
-import java.util.Collection;
+import java.util.List;
 
 @RestController
 @AllArgsConstructor
@@ -22,6 +29,13 @@ public class BookingController {
         return bookingService.createBooking(createBookingRequest, bookerId);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<BookingBatchResult> createBookings(@RequestBody CreateBookingBatchRequest createBookingBatchRequest,
+                                                   @RequestHeader(value = "X-Sharer-User-Id") Long bookerId) {
+        return bookingService.createBookings(createBookingBatchRequest, bookerId);
+    }
+
     @PatchMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
     public BookingResponse setApproved(@PathVariable Long bookingId,
@@ -30,25 +44,37 @@ public class BookingController {
         return bookingService.setApproved(bookingId, approved, ownerId);
     }
 
-    @GetMapping("/{bookingId}")
+    @PatchMapping("/batch")
     @ResponseStatus(HttpStatus.OK)
-    public BookingResponse getBooking(@PathVariable Long bookingId,
-                               @RequestHeader(value = "X-Sharer-User-Id") Long userId) {
+    public List<BookingResponse> setApprovedBatch(@RequestBody ApproveBookingBatchRequest approveBookingBatchRequest,
+                                                  @RequestParam Boolean approved,
+                                                  @RequestHeader(value = "X-Sharer-User-Id") Long ownerId) {
+        return bookingService.setApprovedBatch(approveBookingBatchRequest, approved, ownerId);
+    }
 
-        return bookingService.getBooking(bookingId, userId);
+    @GetMapping("/{bookingId}")
+    public ResponseEntity<BookingResponse> getBooking(@PathVariable Long bookingId,
+                                                      @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                      WebRequest request) {
+        return EntityTag.toResponse(request, bookingService.getBookingTag(bookingId, userId),
+                () -> ResponseEntity.ok(bookingService.getBooking(bookingId, userId)));
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public Collection<BookingResponse> getBookerBookings(@RequestHeader(value = "X-Sharer-User-Id") Long bookerId,
-                                                  @RequestParam(required = false, defaultValue = "ALL") State state) {
-        return bookingService.getBookerBookings(bookerId, state);
+    public ResponseEntity<List<BookingResponse>> getBookerBookings(@RequestHeader(value = "X-Sharer-User-Id") Long bookerId,
+                                                  @RequestParam(required = false, defaultValue = "ALL") State state,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return KeysetCursor.toResponse(bookingService.getBookerBookings(bookerId, state, cursor, size));
     }
 
     @GetMapping("/owner")
     @ResponseStatus(HttpStatus.OK)
-    public Collection<BookingResponse> getOwnerBookings(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
-                                                 @RequestParam(required = false, defaultValue = "ALL") State state) {
-        return bookingService.getOwnerBookings(ownerId, state);
+    public ResponseEntity<List<BookingResponse>> getOwnerBookings(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                 @RequestParam(required = false, defaultValue = "ALL") State state,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return KeysetCursor.toResponse(bookingService.getOwnerBookings(ownerId, state, cursor, size));
     }
 }
@@ -16,6 +16,7 @@ public interface BookingMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "startDate", source = "createBookingRequest.start")
     @Mapping(target = "endDate", source = "createBookingRequest.end")
+    @Mapping(target = "version", ignore = true)
     Booking createRequestToBooking(CreateBookingRequest createBookingRequest, Item item, User booker);
 
     @Mapping(target = "item", source = "item")
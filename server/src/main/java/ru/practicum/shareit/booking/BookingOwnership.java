@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+public interface BookingOwnership {
+    Long getId();
+
+    Long getOwnerId();
+
+    Status getStatus();
+}
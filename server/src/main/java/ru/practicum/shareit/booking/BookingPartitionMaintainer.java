@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// the first run converts a plain bookings table in place, locking and copying it, so it needs a maintenance window
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.partitioning.enabled", havingValue = "true")
+public class BookingPartitionMaintainer {
+    private static final String LOCK_KEY = "bookings_partitions";
+    private static final String PARTITION_PREFIX = "bookings_p";
+    private static final String DEFAULT_PARTITION = "bookings_default";
+    private static final String LEGACY_TABLE = "bookings_unpartitioned";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+
+    public BookingPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${shareit.bookings.partitioning.months-ahead:3}") int monthsAhead,
+                                      @Value("${shareit.bookings.partitioning.archive-after-months:0}") int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.bookings.partitioning.cron:0 0 3 * * *}")
+    public void maintain() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('" + LOCK_KEY + "'))");
+            YearMonth current = YearMonth.now();
+            if (!isPartitioned()) {
+                convertToPartitioned(current.plusMonths(monthsAhead));
+            }
+            for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+                createPartition(month);
+            }
+            if (archiveAfterMonths > 0) {
+                archivePartitionsBefore(current.minusMonths(archiveAfterMonths));
+            }
+        });
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('bookings'))",
+                Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private void convertToPartitioned(YearMonth lastMonth) {
+        jdbcTemplate.execute("LOCK TABLE bookings IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE bookings RENAME TO " + LEGACY_TABLE);
+        jdbcTemplate.execute("CREATE TABLE bookings (LIKE " + LEGACY_TABLE + " INCLUDING DEFAULTS) PARTITION BY RANGE (start_date)");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF bookings DEFAULT");
+
+        LocalDate firstStart = jdbcTemplate.queryForObject(
+                "SELECT CAST(MIN(start_date) AS DATE) FROM " + LEGACY_TABLE, LocalDate.class);
+        YearMonth firstMonth = firstStart == null ? YearMonth.now() : YearMonth.from(firstStart);
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+        jdbcTemplate.execute("INSERT INTO bookings SELECT * FROM " + LEGACY_TABLE);
+
+        List<String> indexDefinitions = jdbcTemplate.queryForList(
+                "SELECT pg_get_indexdef(indexrelid) FROM pg_index WHERE indrelid = to_regclass(?) AND NOT indisprimary",
+                String.class, LEGACY_TABLE);
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+
+        // the primary key of a partitioned table has to include the partition key; ids still come from bookings_seq
+        jdbcTemplate.execute("ALTER TABLE bookings ADD PRIMARY KEY (id, start_date)");
+        jdbcTemplate.execute("ALTER TABLE bookings ADD FOREIGN KEY (item_id) REFERENCES items (id)");
+        jdbcTemplate.execute("ALTER TABLE bookings ADD FOREIGN KEY (booker_id) REFERENCES users (id)");
+        indexDefinitions.forEach(definition ->
+                jdbcTemplate.execute(definition.replaceAll("\\b" + LEGACY_TABLE + "\\b", "bookings")));
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+            return;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        Boolean misplacedRows = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE start_date >= ? AND start_date < ?)",
+                Boolean.class, from, to);
+        if (Boolean.TRUE.equals(misplacedRows)) {
+            // a partition cannot be attached while the default partition holds rows of its range
+            jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + DEFAULT_PARTITION);
+            createMonthPartition(partition, from, to);
+            jdbcTemplate.update("INSERT INTO bookings SELECT * FROM " + DEFAULT_PARTITION
+                    + " WHERE start_date >= ? AND start_date < ?", from, to);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE start_date >= ? AND start_date < ?", from, to);
+            jdbcTemplate.execute("ALTER TABLE bookings ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+        } else {
+            createMonthPartition(partition, from, to);
+        }
+    }
+
+    private void createMonthPartition(String partition, LocalDate from, LocalDate to) {
+        jdbcTemplate.execute(String.format("CREATE TABLE %s PARTITION OF bookings FOR VALUES FROM ('%s') TO ('%s')",
+                partition, from, to));
+    }
+
+    private void archivePartitionsBefore(YearMonth firstKeptMonth) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = to_regclass('bookings') AND c.relname LIKE 'bookings\\_p%' ORDER BY c.relname",
+                String.class);
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (month.isBefore(firstKeptMonth)) {
+                jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + partition);
+                jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO bookings_archived_p" + month.format(PARTITION_SUFFIX));
+            }
+        }
+    }
+}
@@ -1,32 +1,71 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Collection<Booking> findAllByBooker_IdOrderByStartDateDesc(Long bookerId);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findWithItemAndBookerById(Long bookingId);
 
-    Collection<Booking> findByBooker_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDesc(Long bookerId, LocalDateTime now1, LocalDateTime now2);
+    @Query("SELECT b.version AS bookingVersion, b.item.version AS itemVersion, b.booker.version AS bookerVersion, "
+            + "b.booker.id AS bookerId, b.item.owner.id AS ownerId FROM Booking b WHERE b.id = :bookingId")
+    Optional<BookingVersion> findVersionById(Long bookingId);
 
-    Collection<Booking> findByBooker_IdAndEndDateBeforeOrderByStartDateDesc(Long bookerId, LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBooker_IdOrderByStartDateDescIdDesc(Long bookerId, ScrollPosition position, Limit limit);
 
-    Collection<Booking> findByBooker_IdAndStartDateAfterOrderByStartDateDesc(Long bookerId, LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBooker_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDescIdDesc(Long bookerId, LocalDateTime now1, LocalDateTime now2, ScrollPosition position, Limit limit);
 
-    Collection<Booking> findAllByBooker_IdAndStatusOrderByStartDateDesc(Long bookerId, Status status);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBooker_IdAndStartDateBeforeAndEndDateBeforeOrderByStartDateDescIdDesc(Long bookerId, LocalDateTime now1, LocalDateTime now2, ScrollPosition position, Limit limit);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBooker_IdAndStartDateAfterOrderByStartDateDescIdDesc(Long bookerId, LocalDateTime now, ScrollPosition position, Limit limit);
 
-    Collection<Booking> findAllByItem_Owner_IdOrderByStartDateDesc(Long ownerId);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBooker_IdAndStatusOrderByStartDateDescIdDesc(Long bookerId, Status status, ScrollPosition position, Limit limit);
 
-    Collection<Booking> findByItem_Owner_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDesc(Long ownerId, LocalDateTime now1, LocalDateTime now2);
 
-    Collection<Booking> findByItem_Owner_IdAndEndDateBeforeOrderByStartDateDesc(Long ownerId, LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItem_Owner_IdOrderByStartDateDescIdDesc(Long ownerId, ScrollPosition position, Limit limit);
 
-    Collection<Booking> findByItem_Owner_IdAndStartDateAfterOrderByStartDateDesc(Long ownerId, LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItem_Owner_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDescIdDesc(Long ownerId, LocalDateTime now1, LocalDateTime now2, ScrollPosition position, Limit limit);
 
-    Collection<Booking> findAllByItem_Owner_IdAndStatusOrderByStartDateDesc(Long ownerId, Status status);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItem_Owner_IdAndStartDateBeforeAndEndDateBeforeOrderByStartDateDescIdDesc(Long ownerId, LocalDateTime now1, LocalDateTime now2, ScrollPosition position, Limit limit);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItem_Owner_IdAndStartDateAfterOrderByStartDateDescIdDesc(Long ownerId, LocalDateTime now, ScrollPosition position, Limit limit);
 
-    Collection<Booking> findByItem_IdAndBooker_IdAndEndDateBeforeOrderByStartDateDesc(Long itemId, Long bookerId, LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItem_Owner_IdAndStatusOrderByStartDateDescIdDesc(Long ownerId, Status status, ScrollPosition position, Limit limit);
+
+
+    @Query("SELECT b.id AS id, b.item.owner.id AS ownerId, b.status AS status FROM Booking b WHERE b.id IN :bookingIds")
+    List<BookingOwnership> findOwnershipByIdIn(Collection<Long> bookingIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 WHERE b.id IN :bookingIds AND b.status = :currentStatus")
+    int updateStatusByIdInAndStatus(Collection<Long> bookingIds, Status currentStatus, Status status);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findWithItemAndBookerByIdInAndStatusOrderByIdAsc(Collection<Long> bookingIds, Status status);
+
+    boolean existsByItem_IdAndStatusInAndStartDateBeforeAndEndDateAfter(Long itemId, Collection<Status> statuses, LocalDateTime end, LocalDateTime start);
+
+    List<Booking> findByItem_IdInAndStatusInAndStartDateBeforeAndEndDateAfter(Collection<Long> itemIds, Collection<Status> statuses, LocalDateTime end, LocalDateTime start);
+
+    boolean existsByItem_IdAndBooker_IdAndStatusAndStartDateBeforeAndEndDateBefore(Long itemId, Long bookerId, Status status, LocalDateTime now1, LocalDateTime now2);
 }
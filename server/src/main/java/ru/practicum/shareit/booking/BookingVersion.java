@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking;
+
+public interface BookingVersion {
+    Long getBookingVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// only positive answers are cached: a completed booking stays completed unless its approval is withdrawn
+@Component
+@AllArgsConstructor
+public class CompletedBookingLookup {
+    private final BookingRepository bookingRepository;
+
+    @Cacheable(cacheNames = "completedBookings", key = "#itemId + ':' + #bookerId", unless = "!#result")
+    public boolean hasCompletedBooking(Long itemId, Long bookerId) {
+        LocalDateTime now = LocalDateTime.now();
+        return bookingRepository.existsByItem_IdAndBooker_IdAndStatusAndStartDateBeforeAndEndDateBefore(
+                itemId, bookerId, Status.APPROVED, now, now);
+    }
+
+    @CacheEvict(cacheNames = "completedBookings", key = "#itemId + ':' + #bookerId")
+    public void evict(Long itemId, Long bookerId) {
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@AllArgsConstructor
+public class ItemBookingSummaryRefresher {
+    private static final int BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.refresh-interval:PT1M}",
+            initialDelayString = "${shareit.booking-summary.refresh-interval:PT1M}")
+    public void refreshStartedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds;
+        do {
+            itemIds = itemBookingSummaryRepository.findByNextStartLessThanEqual(now, Limit.of(BATCH_SIZE)).stream()
+                    .map(ItemBookingSummary::getItemId)
+                    .toList();
+            if (!itemIds.isEmpty()) {
+                itemBookingSummaryRepository.refresh(itemIds, now);
+            }
+        } while (itemIds.size() == BATCH_SIZE);
+    }
+}
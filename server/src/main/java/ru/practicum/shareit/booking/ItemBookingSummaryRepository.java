@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    // a summary whose next booking has started since the last refresh falls back to its item's bookings
+    @Query("SELECT s.itemId AS itemId, "
+            + "CASE WHEN s.nextStart <= :now THEN (SELECT MAX(b.startDate) FROM Booking b "
+            + "WHERE b.item.id = s.itemId AND b.startDate < :now) ELSE s.lastStart END AS lastBooking, "
+            + "CASE WHEN s.nextStart <= :now THEN (SELECT MIN(b.startDate) FROM Booking b "
+            + "WHERE b.item.id = s.itemId AND b.startDate > :now) ELSE s.nextStart END AS nextBooking "
+            + "FROM ItemBookingSummary s WHERE s.itemId IN :itemIds")
+    List<ItemBookingDates> findBookingDatesByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    List<ItemBookingSummary> findByNextStartLessThanEqual(LocalDateTime now, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "MERGE INTO item_booking_summary s USING ("
+            + "SELECT b.item_id, "
+            + "MAX(CASE WHEN b.start_date < :now THEN b.start_date END) AS last_start, "
+            + "MIN(CASE WHEN b.start_date > :now THEN b.start_date END) AS next_start "
+            + "FROM bookings b WHERE b.item_id IN (:itemIds) GROUP BY b.item_id) r "
+            + "ON s.item_id = r.item_id "
+            + "WHEN MATCHED THEN UPDATE SET last_start = r.last_start, next_start = r.next_start, updated_at = :now "
+            + "WHEN NOT MATCHED THEN INSERT (item_id, last_start, next_start, updated_at) "
+            + "VALUES (r.item_id, r.last_start, r.next_start, :now)", nativeQuery = true)
+    int refresh(Collection<Long> itemIds, LocalDateTime now);
+}
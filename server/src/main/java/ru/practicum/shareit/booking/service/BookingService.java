@@ -1,19 +1,29 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Window;
 import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.dto.ApproveBookingBatchRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.CreateBookingBatchRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 
-import java.util.Collection;
+import java.util.List;
 
 public interface BookingService {
     BookingResponse createBooking(CreateBookingRequest createBookingRequest, Long bookerId);
 
+    List<BookingBatchResult> createBookings(CreateBookingBatchRequest createBookingBatchRequest, Long bookerId);
+
     BookingResponse setApproved(Long bookingId, Boolean approved, Long ownerId);
 
+    List<BookingResponse> setApprovedBatch(ApproveBookingBatchRequest approveBookingBatchRequest, Boolean approved, Long ownerId);
+
     BookingResponse getBooking(Long bookingId, Long userId);
 
-    Collection<BookingResponse> getBookerBookings(Long bookerId, State state);
+    String getBookingTag(Long bookingId, Long userId);
+
+    Window<BookingResponse> getBookerBookings(Long bookerId, State state, String cursor, Integer size);
 
-    Collection<BookingResponse> getOwnerBookings(Long ownerId, State state);
+    Window<BookingResponse> getOwnerBookings(Long ownerId, State state, String cursor, Integer size);
 }
@@ -2,68 +2,256 @@ package ru.practicum.shareit.booking.service.impl;
 
 import jakarta.validation.ValidationException;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.*;
+import ru.practicum.shareit.booking.dto.ApproveBookingBatchRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.CreateBookingBatchRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.conditional.EntityTag;
 import ru.practicum.shareit.exception.exceptions.AuthorizationException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
 import ru.practicum.shareit.exception.exceptions.UnavailableItemBookingException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserResponse;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final Map<String, Function<String, Object>> CURSOR_KEYS = Map.of(
+            "startDate", LocalDateTime::parse,
+            "id", Long::valueOf);
+    private static final Set<Status> BLOCKING_STATUSES = EnumSet.of(Status.WAITING, Status.APPROVED);
+
     private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final CompletedBookingLookup completedBookingLookup;
+    private final OutboxPublisher outboxPublisher;
     private final BookingMapper bookingMapper;
-    private final ItemService itemService;
     private final ItemMapper itemMapper;
+    private final ItemRepository itemRepository;
     private final UserService userService;
     private final UserMapper userMapper;
+    private final UserRepository userRepository;
 
     @Override
+    @Transactional
     public BookingResponse createBooking(CreateBookingRequest createBookingRequest, Long bookerId) {
-        User booker = userMapper.responseToUser(userService.getUser(bookerId));
-        Item item = getItem(createBookingRequest.getItemId());
+        User booker = getBooker(bookerId);
+        Item item = getLockedItem(createBookingRequest.getItemId());
 
         Booking booking = bookingMapper.createRequestToBooking(createBookingRequest, item, booker);
         booking.setStatus(Status.WAITING);
         validateBooking(booking);
+        validateNoOverlap(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        itemBookingSummaryRepository.refresh(List.of(item.getId()), LocalDateTime.now());
 
-        return bookingMapper.bookingToResponse(
-                bookingRepository.save(booking),
+        BookingResponse bookingResponse = bookingMapper.bookingToResponse(
+                savedBooking,
                 itemMapper.itemToResponse(item),
                 userMapper.userToResponse(booker));
+        outboxPublisher.publish(OutboxEventType.BOOKING_CREATED, bookingResponse.getId(), bookingResponse);
+        return bookingResponse;
     }
 
     @Override
+    @Transactional
+    public List<BookingBatchResult> createBookings(CreateBookingBatchRequest createBookingBatchRequest, Long bookerId) {
+        User booker = getBooker(bookerId);
+        List<CreateBookingRequest> requests = createBookingBatchRequest.getBookings();
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> itemIds = requests.stream()
+                .map(CreateBookingRequest::getItemId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, Item> itemsById = itemRepository.findLockedByIdInOrderByIdAsc(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<Booking> bookings = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (CreateBookingRequest request : requests) {
+            Item item = itemsById.get(request.getItemId());
+            if (item == null) {
+                bookings.add(null);
+                errors.add(String.format("Item with id %s not found", request.getItemId()));
+                continue;
+            }
+
+            Booking booking = bookingMapper.createRequestToBooking(request, item, booker);
+            booking.setStatus(Status.WAITING);
+            try {
+                validateBooking(booking);
+                bookings.add(booking);
+                errors.add(null);
+            } catch (ValidationException | UnavailableItemBookingException e) {
+                bookings.add(null);
+                errors.add(e.getMessage());
+            }
+        }
+
+        Map<Long, List<Booking>> blockingBookingsByItemId = findBlockingBookings(bookings.stream().filter(Objects::nonNull).toList());
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            if (booking == null) {
+                continue;
+            }
+            List<Booking> itemBookings = blockingBookingsByItemId.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>());
+            if (itemBookings.stream().anyMatch(other -> overlaps(other, booking))) {
+                bookings.set(i, null);
+                errors.set(i, String.format("Item %d is already booked for this period", booking.getItem().getId()));
+            } else {
+                itemBookings.add(booking);
+            }
+        }
+        List<Booking> savedBookings = bookingRepository.saveAll(bookings.stream().filter(Objects::nonNull).toList());
+        if (!savedBookings.isEmpty()) {
+            List<Long> bookedItemIds = savedBookings.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .distinct()
+                    .toList();
+            itemBookingSummaryRepository.refresh(bookedItemIds, LocalDateTime.now());
+        }
+
+        UserResponse bookerResponse = userMapper.userToResponse(booker);
+        Map<Long, ItemResponse> itemResponsesById = new HashMap<>();
+        List<BookingBatchResult> results = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Booking booking = bookings.get(i);
+            BookingBatchResult.BookingBatchResultBuilder result = BookingBatchResult.builder()
+                    .itemId(requests.get(i).getItemId())
+                    .error(errors.get(i));
+            if (booking != null) {
+                ItemResponse itemResponse = itemResponsesById.computeIfAbsent(
+                        booking.getItem().getId(), id -> itemMapper.itemToResponse(booking.getItem()));
+                BookingResponse bookingResponse = bookingMapper.bookingToResponse(booking, itemResponse, bookerResponse);
+                outboxPublisher.publish(OutboxEventType.BOOKING_CREATED, bookingResponse.getId(), bookingResponse);
+                result.booking(bookingResponse);
+            }
+            results.add(result.build());
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
     public BookingResponse setApproved(Long bookingId, Boolean approved, Long ownerId) {
         Booking booking = findBooking(bookingId);
         if (!booking.getItem().getOwner().getId().equals(ownerId)) {
             throw new AuthorizationException(String.format("User id=%d is not owner of item id=%d", ownerId, bookingId));
         }
         if (Boolean.TRUE.equals(approved)) {
+            // a rejected booking gave its period up, so it is approved only if the period is still free
+            if (booking.getStatus() == Status.REJECTED) {
+                getLockedItem(booking.getItem().getId());
+                validateNoOverlap(booking);
+            }
             booking.setStatus(Status.APPROVED);
         } else {
+            if (booking.getStatus() == Status.APPROVED) {
+                completedBookingLookup.evict(booking.getItem().getId(), booking.getBooker().getId());
+            }
             booking.setStatus(Status.REJECTED);
         }
+        Booking savedBooking = bookingRepository.save(booking);
+        itemBookingSummaryRepository.refresh(List.of(booking.getItem().getId()), LocalDateTime.now());
 
-        return bookingMapper.bookingToResponse(
-                bookingRepository.save(booking),
+        BookingResponse bookingResponse = bookingMapper.bookingToResponse(
+                savedBooking,
                 itemMapper.itemToResponse(booking.getItem()),
                 userMapper.userToResponse(booking.getBooker()));
+        outboxPublisher.publish(statusEvent(bookingResponse.getStatus()), bookingResponse.getId(), bookingResponse);
+        return bookingResponse;
+    }
+
+    // bookings that are no longer waiting are left untouched and are not returned
+    @Override
+    @Transactional
+    public List<BookingResponse> setApprovedBatch(ApproveBookingBatchRequest approveBookingBatchRequest, Boolean approved, Long ownerId) {
+        List<Long> bookingIds = approveBookingBatchRequest.getBookingIds();
+        if (bookingIds == null || bookingIds.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> requestedIds = bookingIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, BookingOwnership> ownershipById = bookingRepository.findOwnershipByIdIn(requestedIds).stream()
+                .collect(Collectors.toMap(BookingOwnership::getId, Function.identity()));
+        List<Long> missingIds = requestedIds.stream()
+                .filter(id -> !ownershipById.containsKey(id))
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new NotFoundException(String.format("Bookings with ids %s not found", missingIds));
+        }
+        List<Long> foreignIds = requestedIds.stream()
+                .filter(id -> !ownershipById.get(id).getOwnerId().equals(ownerId))
+                .toList();
+        if (!foreignIds.isEmpty()) {
+            throw new AuthorizationException(String.format("User id=%d is not owner of bookings with ids %s", ownerId, foreignIds));
+        }
+
+        List<Long> waitingIds = ownershipById.values().stream()
+                .filter(ownership -> ownership.getStatus() == Status.WAITING)
+                .map(BookingOwnership::getId)
+                .toList();
+        if (waitingIds.isEmpty()) {
+            return List.of();
+        }
+        Status status = Boolean.TRUE.equals(approved) ? Status.APPROVED : Status.REJECTED;
+        bookingRepository.updateStatusByIdInAndStatus(waitingIds, Status.WAITING, status);
+
+        List<Booking> bookings = bookingRepository.findWithItemAndBookerByIdInAndStatusOrderByIdAsc(waitingIds, status);
+        if (!bookings.isEmpty()) {
+            List<Long> itemIds = bookings.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .distinct()
+                    .toList();
+            itemBookingSummaryRepository.refresh(itemIds, LocalDateTime.now());
+        }
+        List<BookingResponse> bookingResponses = bookings.stream()
+                .map(booking -> bookingMapper.bookingToResponse(
+                        booking,
+                        itemMapper.itemToResponse(booking.getItem()),
+                        userMapper.userToResponse(booking.getBooker())))
+                .toList();
+        bookingResponses.forEach(bookingResponse ->
+                outboxPublisher.publish(statusEvent(status), bookingResponse.getId(), bookingResponse));
+        return bookingResponses;
     }
 
     @Override
@@ -81,51 +269,66 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public Collection<BookingResponse> getBookerBookings(Long bookerId, State state) {
+    public String getBookingTag(Long bookingId, Long userId) {
+        BookingVersion version = bookingRepository.findVersionById(bookingId).orElseThrow(
+                () -> new NotFoundException(String.format("Booking id=%d not found", bookingId))
+        );
+        if (!version.getBookerId().equals(userId) && !version.getOwnerId().equals(userId)) {
+            throw new AuthorizationException(String.format("User id=%d doesnt have access to item id=%d", userId, bookingId));
+        }
+        return EntityTag.of(version.getBookingVersion(), version.getItemVersion(), version.getBookerVersion());
+    }
+
+    @Override
+    public Window<BookingResponse> getBookerBookings(Long bookerId, State state, String cursor, Integer size) {
         userService.getUser(bookerId);
-        Collection<Booking> bookings = List.of();
+        ScrollPosition position = KeysetCursor.decode(cursor, CURSOR_KEYS);
+        Limit limit = Limit.of(size);
+        Window<Booking> bookings = Window.from(List.of(), ScrollPosition::offset);
         LocalDateTime now = LocalDateTime.now();
         switch (state) {
-            case ALL -> bookings = bookingRepository.findAllByBooker_IdOrderByStartDateDesc(bookerId);
-            case CURRENT -> bookings = bookingRepository.findByBooker_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDesc(bookerId, now, now);
-            case PAST -> bookings = bookingRepository.findByBooker_IdAndEndDateBeforeOrderByStartDateDesc(bookerId, now);
-            case FUTURE -> bookings = bookingRepository.findByBooker_IdAndStartDateAfterOrderByStartDateDesc(bookerId, now);
-            case WAITING -> bookings = bookingRepository.findAllByBooker_IdAndStatusOrderByStartDateDesc(bookerId, Status.WAITING);
-            case REJECTED -> bookings = bookingRepository.findAllByBooker_IdAndStatusOrderByStartDateDesc(bookerId, Status.REJECTED);
+            case ALL -> bookings = bookingRepository.findByBooker_IdOrderByStartDateDescIdDesc(bookerId, position, limit);
+            case CURRENT -> bookings = bookingRepository.findByBooker_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDescIdDesc(bookerId, now, now, position, limit);
+            case PAST -> bookings = bookingRepository.findByBooker_IdAndStartDateBeforeAndEndDateBeforeOrderByStartDateDescIdDesc(bookerId, now, now, position, limit);
+            case FUTURE -> bookings = bookingRepository.findByBooker_IdAndStartDateAfterOrderByStartDateDescIdDesc(bookerId, now, position, limit);
+            case WAITING -> bookings = bookingRepository.findByBooker_IdAndStatusOrderByStartDateDescIdDesc(bookerId, Status.WAITING, position, limit);
+            case REJECTED -> bookings = bookingRepository.findByBooker_IdAndStatusOrderByStartDateDescIdDesc(bookerId, Status.REJECTED, position, limit);
         }
 
-        return bookings.stream().map(booking ->
+        return bookings.map(booking ->
                 bookingMapper.bookingToResponse(
                         booking,
                         itemMapper.itemToResponse(booking.getItem()),
                         userMapper.userToResponse(booking.getBooker()))
-        ).toList();
+        );
     }
 
     @Override
-    public Collection<BookingResponse> getOwnerBookings(Long ownerId, State state) {
+    public Window<BookingResponse> getOwnerBookings(Long ownerId, State state, String cursor, Integer size) {
         userService.getUser((ownerId));
-        Collection<Booking> bookings = List.of();
+        ScrollPosition position = KeysetCursor.decode(cursor, CURSOR_KEYS);
+        Limit limit = Limit.of(size);
+        Window<Booking> bookings = Window.from(List.of(), ScrollPosition::offset);
         LocalDateTime now = LocalDateTime.now();
         switch (state) {
-            case ALL -> bookings = bookingRepository.findAllByItem_Owner_IdOrderByStartDateDesc(ownerId);
-            case CURRENT -> bookings = bookingRepository.findByItem_Owner_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDesc(ownerId, now, now);
-            case PAST -> bookings = bookingRepository.findByItem_Owner_IdAndEndDateBeforeOrderByStartDateDesc(ownerId, now);
-            case FUTURE -> bookings = bookingRepository.findByItem_Owner_IdAndStartDateAfterOrderByStartDateDesc(ownerId, now);
-            case WAITING -> bookings = bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDateDesc(ownerId, Status.WAITING);
-            case REJECTED -> bookings = bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDateDesc(ownerId, Status.REJECTED);
+            case ALL -> bookings = bookingRepository.findByItem_Owner_IdOrderByStartDateDescIdDesc(ownerId, position, limit);
+            case CURRENT -> bookings = bookingRepository.findByItem_Owner_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDescIdDesc(ownerId, now, now, position, limit);
+            case PAST -> bookings = bookingRepository.findByItem_Owner_IdAndStartDateBeforeAndEndDateBeforeOrderByStartDateDescIdDesc(ownerId, now, now, position, limit);
+            case FUTURE -> bookings = bookingRepository.findByItem_Owner_IdAndStartDateAfterOrderByStartDateDescIdDesc(ownerId, now, position, limit);
+            case WAITING -> bookings = bookingRepository.findByItem_Owner_IdAndStatusOrderByStartDateDescIdDesc(ownerId, Status.WAITING, position, limit);
+            case REJECTED -> bookings = bookingRepository.findByItem_Owner_IdAndStatusOrderByStartDateDescIdDesc(ownerId, Status.REJECTED, position, limit);
         }
 
-        return bookings.stream().map(booking ->
+        return bookings.map(booking ->
                 bookingMapper.bookingToResponse(
                         booking,
                         itemMapper.itemToResponse(booking.getItem()),
                         userMapper.userToResponse(booking.getBooker()))
-        ).toList();
+        );
     }
 
     private Booking findBooking(Long bookingId) {
-        Optional<Booking> bookingOpt = bookingRepository.findById(bookingId);
+        Optional<Booking> bookingOpt = bookingRepository.findWithItemAndBookerById(bookingId);
         if (bookingOpt.isPresent()) {
             return bookingOpt.get();
         } else {
@@ -137,7 +340,9 @@ public class BookingServiceImpl implements BookingService {
         LocalDateTime start = booking.getStartDate();
         LocalDateTime end = booking.getEndDate();
 
-        if (start.isAfter(end)) {
+        if (start == null || end == null) {
+            throw new ValidationException("Start and end dates are required");
+        } else if (start.isAfter(end)) {
             throw new ValidationException("Start date is after end date");
         } else if (start.equals(end)) {
             throw new ValidationException("Start date equals end date");
@@ -146,9 +351,52 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private Item getItem(Long itemId) {
-        ItemResponse itemResponse = itemService.findItem(itemId);
-        User owner = userMapper.responseToUser(userService.getUser(itemResponse.getOwnerId()));
-        return itemMapper.responseToItem(itemResponse, owner);
+    private void validateNoOverlap(Booking booking) {
+        if (bookingRepository.existsByItem_IdAndStatusInAndStartDateBeforeAndEndDateAfter(
+                booking.getItem().getId(), BLOCKING_STATUSES, booking.getEndDate(), booking.getStartDate())) {
+            throw new UnavailableItemBookingException(
+                    String.format("Item %d is already booked for this period", booking.getItem().getId()));
+        }
+    }
+
+    private Map<Long, List<Booking>> findBlockingBookings(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return new HashMap<>();
+        }
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        LocalDateTime earliestStart = bookings.stream()
+                .map(Booking::getStartDate)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime latestEnd = bookings.stream()
+                .map(Booking::getEndDate)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+        return bookingRepository.findByItem_IdInAndStatusInAndStartDateBeforeAndEndDateAfter(
+                        itemIds, BLOCKING_STATUSES, latestEnd, earliestStart).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(), HashMap::new, Collectors.toCollection(ArrayList::new)));
+    }
+
+    private static OutboxEventType statusEvent(Status status) {
+        return status == Status.APPROVED ? OutboxEventType.BOOKING_APPROVED : OutboxEventType.BOOKING_REJECTED;
+    }
+
+    private static boolean overlaps(Booking first, Booking second) {
+        return first.getStartDate().isBefore(second.getEndDate()) && first.getEndDate().isAfter(second.getStartDate());
+    }
+
+    private User getBooker(Long bookerId) {
+        return userRepository.findById(bookerId).orElseThrow(
+                () -> new NotFoundException(String.format("User with id %d not found", bookerId))
+        );
+    }
+
+    // the item row lock makes the overlap check and the insert atomic per item
+    private Item getLockedItem(Long itemId) {
+        return itemRepository.findLockedById(itemId).orElseThrow(
+                () -> new NotFoundException(String.format("Item with id %s not found", itemId))
+        );
     }
 }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.conditional;
+
+import jakarta.validation.ValidationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// strong ETags built from row versions; the first segment is always the version of the tagged row
+public final class EntityTag {
+    private EntityTag() {
+    }
+
+    public static String of(Object... versions) {
+        return Arrays.stream(versions)
+                .map(String::valueOf)
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    // for representations built from several rows, such as a page, that no If-Match applies to
+    public static String digestOf(Object... parts) {
+        String joined = Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        return "\"" + DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    public static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new ValidationException(String.format("If-Match %s is not a strong entity tag", ifMatch));
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1).split("-", 2)[0]);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(String.format("If-Match %s is not a strong entity tag", ifMatch));
+        }
+    }
+
+    public static <T> ResponseEntity<T> toResponse(WebRequest request, String etag, Supplier<ResponseEntity<T>> response) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ResponseEntity<T> entity = response.get();
+        return ResponseEntity.status(entity.getStatusCode())
+                .headers(entity.getHeaders())
+                .eTag(etag)
+                .body(entity.getBody());
+    }
+}
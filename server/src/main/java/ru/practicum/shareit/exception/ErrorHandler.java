@@ -1,7 +1,10 @@
 package ru.practicum.shareit.exception;
 
 import jakarta.validation.ValidationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,12 +14,15 @@ import ru.practicum.shareit.exception.exceptions.AuthorizationException;
 import ru.practicum.shareit.exception.exceptions.EmailAlreadyExistsException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
 import ru.practicum.shareit.exception.exceptions.UnavailableItemBookingException;
+import ru.practicum.shareit.exception.exceptions.VersionConflictException;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @RestControllerAdvice
 public class ErrorHandler {
+    private static final String UNIQUE_VIOLATION = "23505";
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
@@ -30,6 +36,22 @@ public class ErrorHandler {
         return ErrorResponse.builder().error(e.getMessage()).timestamp(LocalDateTime.now()).status(409).build();
     }
 
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException e) {
+        if (isUniqueViolation(e)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ErrorResponse.builder().error("Data conflicts with an existing record").timestamp(LocalDateTime.now()).status(409).build());
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.builder().error("Data violates a constraint").timestamp(LocalDateTime.now()).status(400).build());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleVersionConflictException(VersionConflictException e) {
+        return ErrorResponse.builder().error(e.getMessage()).timestamp(LocalDateTime.now()).status(409).build();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleUnavailableItemBookingException(UnavailableItemBookingException e) {
@@ -71,4 +93,16 @@ public class ErrorHandler {
     public ErrorResponse handleException(Exception e) {
         return ErrorResponse.builder().error(e.getMessage()).timestamp(LocalDateTime.now()).status(500).build();
     }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
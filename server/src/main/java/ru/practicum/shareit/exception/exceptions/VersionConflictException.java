@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception.exceptions;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
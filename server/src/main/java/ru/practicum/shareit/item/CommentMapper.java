@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import ru.practicum.shareit.item.dao.ItemCommentView;
 import ru.practicum.shareit.item.dto.CreateCommentRequest;
 import ru.practicum.shareit.item.dto.ItemCommentResponse;
 import ru.practicum.shareit.item.dto.ItemResponse;
@@ -16,6 +17,7 @@ public interface CommentMapper {
     @Mapping(target = "item", source = "item")
     @Mapping(target = "author", source = "author")
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Comment createRequestToComment(CreateCommentRequest createCommentRequest, Item item, User author);
 
     @Mapping(target = "item", source = "item")
@@ -28,4 +30,6 @@ public interface CommentMapper {
     @Mapping(target = "id", source = "comment.id")
     @Mapping(target = "created", source = "comment.creationDate")
     ItemCommentResponse commentToResponse(Comment comment);
+
+    ItemCommentResponse commentViewToResponse(ItemCommentView commentView);
 }
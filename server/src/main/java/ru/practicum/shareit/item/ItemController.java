@@ -1,10 +1,15 @@
 package ru.practicum.shareit.item;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.conditional.EntityTag;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.util.List;
 
@@ -22,29 +27,43 @@ public class ItemController {
     }
 
     @PatchMapping("/{itemId}")
-    @ResponseStatus(HttpStatus.OK)
-    public ItemResponse updateItem(@RequestBody UpdateItemRequest updateItemRequest,
-                                   @PathVariable Long itemId,
-                                   @RequestHeader(value = "X-Sharer-User-Id") Long ownerId) {
-        return itemService.updateItem(itemId, updateItemRequest, ownerId);
+    public ResponseEntity<ItemResponse> updateItem(@RequestBody UpdateItemRequest updateItemRequest,
+                                                   @PathVariable Long itemId,
+                                                   @RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ItemResponse item = itemService.updateItem(itemId, updateItemRequest, ownerId, EntityTag.parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTag.of(item.getVersion())).body(item);
     }
 
     @GetMapping("/{itemId}")
-    @ResponseStatus(HttpStatus.OK)
-    public ItemResponseComments getItem(@PathVariable(required = false) Long itemId) {
-        return itemService.findItemWithComments(itemId);
+    public ResponseEntity<ItemResponseComments> getItem(@PathVariable(required = false) Long itemId,
+                                                        WebRequest request) {
+        return EntityTag.toResponse(request, itemService.getItemTag(itemId),
+                () -> ResponseEntity.ok(itemService.findItemWithComments(itemId)));
     }
 
     @GetMapping
+    public ResponseEntity<List<ItemResponseBookingComments>> getAllUserItems(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                                             @RequestParam(required = false) String cursor,
+                                                                             @RequestParam(required = false, defaultValue = "20") Integer size,
+                                                                             WebRequest request) {
+        return EntityTag.toResponse(request, itemService.getUserItemsTag(ownerId, cursor, size),
+                () -> KeysetCursor.toResponse(itemService.getAllUserItems(ownerId, cursor, size)));
+    }
+
+    @GetMapping("/{itemId}/comments")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemResponseBookingComments> getAllUserItems(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId) {
-        return itemService.getAllUserItems(ownerId);
+    public ResponseEntity<List<ItemCommentResponse>> getItemComments(@PathVariable Long itemId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return KeysetCursor.toResponse(itemService.getItemComments(itemId, cursor, size));
     }
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemResponse> searchItems(@RequestParam String text) {
-        return itemService.searchItems(text);
+    public List<ItemResponse> searchItems(@RequestParam String text,
+                                          @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return itemService.searchItems(text, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -18,11 +18,15 @@ public interface ItemMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "request", source = "request")
     @Mapping(target = "description", source = "createItemRequest.description")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "commentsVersion", ignore = true)
     Item createRequestToItem(CreateItemRequest createItemRequest, User owner, Request request);
 
     @Mapping(target = "owner", source = "owner")
     @Mapping(target = "name", source = "updateItemRequest.name")
     @Mapping(target = "id", source = "id")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "commentsVersion", ignore = true)
     Item updateRequestToItem(UpdateItemRequest updateItemRequest, User owner, Long id);
 
     @Mapping(target = "ownerId", source = "owner.id")
@@ -32,6 +36,8 @@ public interface ItemMapper {
     @Mapping(target = "owner", source = "owner")
     @Mapping(target = "name", source = "itemResponse.name")
     @Mapping(target = "id", source = "itemResponse.id")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "commentsVersion", ignore = true)
     Item responseToItem(ItemResponse itemResponse, User owner);
 
     @Mapping(target = "id", source = "item.id")
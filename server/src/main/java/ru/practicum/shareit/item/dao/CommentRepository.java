@@ -1,12 +1,25 @@
 package ru.practicum.shareit.item.dao;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItem_Id(Long itemId);
+    // latest comments of each item, at most limit per item
+    @Query(value = "SELECT id, item_id AS itemId, text, author_name AS authorName, creation_date AS created FROM ("
+            + "SELECT c.id, c.item_id, c.text, u.name AS author_name, c.creation_date, "
+            + "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.creation_date DESC, c.id DESC) AS item_rank "
+            + "FROM comments c JOIN users u ON u.id = c.author_id WHERE c.item_id IN (:itemIds)) ranked "
+            + "WHERE item_rank <= :limit ORDER BY item_id, creation_date DESC, id DESC", nativeQuery = true)
+    List<ItemCommentView> findLatestByItemIds(Collection<Long> itemIds, int limit);
 
-    List<Comment> findAllByItem_Owner_Id(Long ownerId);
+    @EntityGraph(attributePaths = "author")
+    Window<Comment> findByItem_IdOrderByCreationDateDescIdDesc(Long itemId, ScrollPosition position, Limit limit);
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dao;
+
+import java.time.LocalDateTime;
+
+public interface ItemCommentView {
+    Long getId();
+
+    Long getItemId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -1,16 +1,59 @@
 package ru.practicum.shareit.item.dao;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.IndexedItem;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findItemsByOwnerId(Long ownerId);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Item> findLockedById(Long itemId);
 
-    @Query("SELECT i FROM Item i WHERE LOWER(i.name) LIKE LOWER(CONCAT('%', :query, '%')) AND i.available = true")
-    List<Item> findItemsByNameLikeIgnoreCaseAndAvailableTrue(String query);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Item> findLockedByIdInOrderByIdAsc(Collection<Long> itemIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.name = COALESCE(:name, i.name), i.description = COALESCE(:description, i.description), "
+            + "i.available = COALESCE(:available, i.available), i.version = i.version + 1 "
+            + "WHERE i.id = :itemId AND i.owner.id = :ownerId")
+    int updatePartially(Long itemId, Long ownerId, String name, String description, Boolean available);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.name = COALESCE(:name, i.name), i.description = COALESCE(:description, i.description), "
+            + "i.available = COALESCE(:available, i.available), i.version = i.version + 1 "
+            + "WHERE i.id = :itemId AND i.owner.id = :ownerId AND i.version = :version")
+    int updatePartiallyIfVersion(Long itemId, Long ownerId, String name, String description, Boolean available, Long version);
+
+    Window<Item> findByOwner_IdOrderByIdAsc(Long ownerId, ScrollPosition position, Limit limit);
+
+    @Query("SELECT i FROM Item i WHERE LOWER(i.name) LIKE LOWER(CONCAT('%', :query, '%')) AND i.available = true "
+            + "ORDER BY CASE WHEN LOWER(i.name) LIKE LOWER(CONCAT(:query, '%')) THEN 0 ELSE 1 END, LENGTH(i.name), i.id")
+    List<Item> findItemsByNameLikeIgnoreCaseAndAvailableTrue(String query, Limit limit);
+
+    @Query(value = "SELECT * FROM items WHERE available AND name ILIKE '%' || :query || '%' "
+            + "ORDER BY similarity(name, :query) DESC, id LIMIT :limit", nativeQuery = true)
+    List<Item> searchAvailableByNameTrigram(String query, int limit);
 
     List<Item> findItemsByRequest_IdIn(List<Long> requestIds);
+
+    List<IndexedItem> findByAvailableTrue();
+
+    @Query("SELECT i.id AS id, i.version AS version, i.commentsVersion AS commentsVersion FROM Item i WHERE i.id = :itemId")
+    Optional<ItemVersion> findVersionById(Long itemId);
+
+    Window<ItemVersion> findVersionsByOwner_IdOrderByIdAsc(Long ownerId, ScrollPosition position, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Item i SET i.commentsVersion = i.commentsVersion + 1 WHERE i.id = :itemId")
+    int incrementCommentsVersion(Long itemId);
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.dao;
+
+public interface ItemVersion {
+    Long getId();
+
+    Long getVersion();
+
+    Long getCommentsVersion();
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +17,6 @@ public class ItemResponse {
     private Boolean available;
     private Long ownerId;
     private Long requestId;
+    @JsonIgnore
+    private Long version;
 }
@@ -15,7 +15,8 @@ import ru.practicum.shareit.user.User;
 public class Item {
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", length = 100, nullable = false)
@@ -37,6 +38,14 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     private Request request;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // bumped by bulk updates when a comment is added or a comment author is renamed
+    @Column(name = "comments_version", nullable = false, insertable = false, updatable = false)
+    private Long commentsVersion;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
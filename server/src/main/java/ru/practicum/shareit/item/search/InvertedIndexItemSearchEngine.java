@@ -0,0 +1,202 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// token suffix -> sorted ids of available items; a substring of a token is a prefix of one of its suffixes
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine {
+    private static final long[] EMPTY = new long[0];
+
+    private final ItemRepository itemRepository;
+    private final NavigableMap<String, long[]> postings = new TreeMap<>();
+    private final Map<Long, String[]> suffixesByItemId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    void build() {
+        List<IndexedItem> items = itemRepository.findByAvailableTrue();
+        lock.writeLock().lock();
+        try {
+            for (IndexedItem item : items) {
+                add(item.getId(), suffixes(tokenize(item.getName())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Item> search(String query, int limit) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0) {
+            return List.of();
+        }
+
+        long[] matches;
+        lock.readLock().lock();
+        try {
+            matches = null;
+            for (String token : queryTokens) {
+                long[] tokenMatches = substringPostings(token);
+                matches = matches == null ? tokenMatches : intersect(matches, tokenMatches);
+                if (matches.length == 0) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Item> found = new ArrayList<>();
+        for (int from = 0; from < matches.length && found.size() < limit; from += limit) {
+            List<Long> pageIds = Arrays.stream(matches, from, Math.min(from + limit, matches.length)).boxed().toList();
+            List<Item> page = itemRepository.findAllById(pageIds).stream()
+                    .sorted(Comparator.comparing(Item::getId))
+                    .toList();
+            for (Item item : page) {
+                if (!Boolean.TRUE.equals(item.getAvailable())) {
+                    index(item);
+                } else if (found.size() < limit) {
+                    found.add(item);
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            String[] oldSuffixes = suffixesByItemId.remove(item.getId());
+            if (oldSuffixes != null) {
+                for (String suffix : oldSuffixes) {
+                    long[] ids = remove(postings.get(suffix), item.getId());
+                    if (ids.length == 0) {
+                        postings.remove(suffix);
+                    } else {
+                        postings.put(suffix, ids);
+                    }
+                }
+            }
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                add(item.getId(), suffixes(tokenize(item.getName())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Long itemId, String[] suffixes) {
+        for (String suffix : suffixes) {
+            postings.put(suffix, insert(postings.getOrDefault(suffix, EMPTY), itemId));
+        }
+        suffixesByItemId.put(itemId, suffixes);
+    }
+
+    // a range scan over the suffixes starting with the part, never over the whole vocabulary
+    private long[] substringPostings(String part) {
+        long[] matches = EMPTY;
+        for (Map.Entry<String, long[]> entry : postings.tailMap(part, true).entrySet()) {
+            if (!entry.getKey().startsWith(part)) {
+                break;
+            }
+            matches = matches.length == 0 ? entry.getValue() : union(matches, entry.getValue());
+        }
+        return matches;
+    }
+
+    static String[] suffixes(String[] tokens) {
+        return Arrays.stream(tokens)
+                .flatMap(token -> IntStream.range(0, token.length()).mapToObj(token::substring))
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    static long[] union(long[] left, long[] right) {
+        long[] result = new long[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length || j < right.length) {
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                result[size++] = left[i++];
+            } else if (i == left.length || left[i] > right[j]) {
+                result[size++] = right[j++];
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        int insertAt = -position - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+
+    private static long[] remove(long[] ids, long id) {
+        if (ids == null) {
+            return EMPTY;
+        }
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+}
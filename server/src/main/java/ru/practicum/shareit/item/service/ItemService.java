@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Window;
 import ru.practicum.shareit.item.dto.*;
 
 import java.util.List;
@@ -7,15 +8,21 @@ import java.util.List;
 public interface ItemService {
     ItemResponse createItem(CreateItemRequest createItemRequest, Long ownerId);
 
-    ItemResponse updateItem(Long itemId, UpdateItemRequest updateItemRequest, Long ownerId);
+    ItemResponse updateItem(Long itemId, UpdateItemRequest updateItemRequest, Long ownerId, Long version);
 
     ItemResponse findItem(Long itemId);
 
     ItemResponseComments findItemWithComments(Long itemId);
 
-    List<ItemResponseBookingComments> getAllUserItems(Long ownerId);
+    String getItemTag(Long itemId);
 
-    List<ItemResponse> searchItems(String query);
+    String getUserItemsTag(Long ownerId, String cursor, Integer size);
+
+    Window<ItemResponseBookingComments> getAllUserItems(Long ownerId, String cursor, Integer size);
+
+    Window<ItemCommentResponse> getItemComments(Long itemId, String cursor, Integer size);
+
+    List<ItemResponse> searchItems(String query, Integer size);
 
     MergeCommentResponse addComment(CreateCommentRequest createCommentRequest, Long itemId, Long authorId);
 
@@ -2,19 +2,36 @@ package ru.practicum.shareit.item.service.impl;
 
 import jakarta.validation.ValidationException;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.Booking;
-import ru.practicum.shareit.booking.BookingRepository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.CompletedBookingLookup;
+import ru.practicum.shareit.booking.ItemBookingDates;
+import ru.practicum.shareit.booking.ItemBookingSummaryRepository;
+import ru.practicum.shareit.conditional.EntityTag;
 import ru.practicum.shareit.exception.exceptions.AuthorizationException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
+import ru.practicum.shareit.exception.exceptions.VersionConflictException;
 import ru.practicum.shareit.item.CommentMapper;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemCommentView;
 import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemVersion;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.Request;
 import ru.practicum.shareit.request.RequestRepository;
 import ru.practicum.shareit.user.User;
@@ -26,21 +43,32 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final Map<String, Function<String, Object>> CURSOR_KEYS = Map.of("id", Long::valueOf);
+    private static final Map<String, Function<String, Object>> COMMENT_CURSOR_KEYS = Map.of(
+            "creationDate", LocalDateTime::parse,
+            "id", Long::valueOf);
+    private static final int LATEST_COMMENTS_PER_ITEM = 10;
+
     private final UserService userService;
     private final UserMapper userMapper;
     private final ItemMapper itemMapper;
     private final ItemRepository itemRepository;
     private final CommentMapper commentMapper;
     private final CommentRepository commentRepository;
-    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final CompletedBookingLookup completedBookingLookup;
     private final RequestRepository requestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final OutboxPublisher outboxPublisher;
 
     @Override
+    @Transactional
     public ItemResponse createItem(CreateItemRequest createItemRequest, Long ownerId) {
         User user = userMapper.responseToUser(userService.getUser(ownerId));
         Item item;
@@ -54,18 +82,36 @@ public class ItemServiceImpl implements ItemService {
             item = itemMapper.createRequestToItem(createItemRequest, user, null);
         }
 
-        return itemMapper.itemToResponse(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        indexAfterCommit(savedItem);
+        ItemResponse itemResponse = itemMapper.itemToResponse(savedItem);
+        outboxPublisher.publish(OutboxEventType.ITEM_CREATED, itemResponse.getId(), itemResponse);
+        return itemResponse;
     }
 
+    // one UPDATE guarded by owner and, when given, version; the row is read back for the response and the event
     @Override
-    public ItemResponse updateItem(Long itemId, UpdateItemRequest updateItemRequest, Long ownerId) {
-        User owner = userMapper.responseToUser(userService.getUser(ownerId));
-        Item item = itemMapper.updateRequestToItem(updateItemRequest, owner, itemId);
+    @Transactional
+    @CacheEvict(cacheNames = "items", key = "#itemId")
+    public ItemResponse updateItem(Long itemId, UpdateItemRequest updateItemRequest, Long ownerId, Long version) {
+        String name = updateItemRequest.getName();
+        String description = updateItemRequest.getDescription();
+        Boolean available = updateItemRequest.getAvailable();
 
-        Item oldItem = getUpdatedOldItem(item);
-        itemRepository.save(oldItem);
+        int updated = version == null
+                ? itemRepository.updatePartially(itemId, ownerId, name, description, available)
+                : itemRepository.updatePartiallyIfVersion(itemId, ownerId, name, description, available, version);
+        if (updated == 0) {
+            throw updateFailure(itemId, ownerId);
+        }
+        Item updatedItem = getItem(itemId);
+        if (name != null || available != null) {
+            indexAfterCommit(updatedItem);
+        }
 
-        return itemMapper.itemToResponse(item);
+        ItemResponse itemResponse = itemMapper.itemToResponse(updatedItem);
+        outboxPublisher.publish(OutboxEventType.ITEM_UPDATED, itemId, itemResponse);
+        return itemResponse;
     }
 
     @Override
@@ -74,44 +120,93 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Cacheable(cacheNames = "items", key = "#itemId")
     public ItemResponseComments findItemWithComments(Long itemId) {
         Item item = getItem(itemId);
-        List<Comment> comments = commentRepository.findAllByItem_Id(itemId);
-        List<ItemCommentResponse> itemCommentResponses = comments.stream().map(commentMapper::commentToResponse).toList();
+        List<ItemCommentResponse> itemCommentResponses = commentRepository
+                .findLatestByItemIds(List.of(itemId), LATEST_COMMENTS_PER_ITEM).stream()
+                .map(commentMapper::commentViewToResponse)
+                .toList();
         return itemMapper.itemToResponseComments(item, itemCommentResponses);
     }
 
     @Override
-    public List<ItemResponseBookingComments> getAllUserItems(Long ownerId) {
-        List<Item> items = itemRepository.findItemsByOwnerId(ownerId);
-        List<Booking> bookings = new ArrayList<>(bookingRepository.findAllByItem_Owner_IdOrderByStartDateDesc(ownerId));
-        List<Comment> comments = commentRepository.findAllByItem_Owner_Id(ownerId);
-
-        Map<Long, List<Booking>> bookingsByItemId = bookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-        Map<Long, List<Comment>> commentsByItemId = comments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
-
-        LocalDateTime now = LocalDateTime.now();
-        return items.stream()
-                .map(item -> {
-                    List<Booking> itemBookings = bookingsByItemId.getOrDefault(item.getId(), List.of());
-                    LocalDateTime nextBooking = itemBookings.stream()
-                            .map(Booking::getStartDate)
-                            .filter(date -> date.isAfter(now))
-                            .min(LocalDateTime::compareTo)
-                            .orElse(null);
-                    LocalDateTime lastBooking = itemBookings.stream()
-                            .map(Booking::getStartDate)
-                            .filter(date -> date.isBefore(now))
-                            .max(LocalDateTime::compareTo)
-                            .orElse(null);
-                    List<ItemCommentResponse> itemComments = commentsByItemId.getOrDefault(item.getId(), List.of())
-                            .stream()
-                            .map(commentMapper::commentToResponse)
-                            .toList();
-                    return itemMapper.itemToResponseBookingComments(item, nextBooking, lastBooking, itemComments);
-                }).toList();
+    public String getItemTag(Long itemId) {
+        ItemVersion version = itemRepository.findVersionById(itemId).orElseThrow(
+                () -> new NotFoundException(String.format("Item with id %s not found", itemId))
+        );
+        return EntityTag.of(version.getVersion(), version.getCommentsVersion());
+    }
+
+    // built from the rows of the requested page only, so the cost is bounded by the page size
+    @Override
+    public String getUserItemsTag(Long ownerId, String cursor, Integer size) {
+        Window<ItemVersion> versions = itemRepository.findVersionsByOwner_IdOrderByIdAsc(
+                ownerId,
+                KeysetCursor.decode(cursor, CURSOR_KEYS),
+                Limit.of(size)
+        );
+        List<Object> parts = new ArrayList<>(List.of(String.valueOf(cursor), size, versions.hasNext()));
+        if (!versions.isEmpty()) {
+            Map<Long, ItemBookingDates> bookingDatesByItemId = itemBookingSummaryRepository
+                    .findBookingDatesByItemIds(versions.map(ItemVersion::getId).getContent(), LocalDateTime.now()).stream()
+                    .collect(Collectors.toMap(ItemBookingDates::getItemId, Function.identity()));
+            versions.forEach(version -> {
+                ItemBookingDates bookingDates = bookingDatesByItemId.get(version.getId());
+                parts.add(version.getId());
+                parts.add(version.getVersion());
+                parts.add(version.getCommentsVersion());
+                parts.add(bookingDates == null ? null : bookingDates.getNextBooking());
+                parts.add(bookingDates == null ? null : bookingDates.getLastBooking());
+            });
+        }
+        return EntityTag.digestOf(parts.toArray());
+    }
+
+    @Override
+    public Window<ItemResponseBookingComments> getAllUserItems(Long ownerId, String cursor, Integer size) {
+        Window<Item> items = itemRepository.findByOwner_IdOrderByIdAsc(
+                ownerId,
+                KeysetCursor.decode(cursor, CURSOR_KEYS),
+                Limit.of(size)
+        );
+        if (items.isEmpty()) {
+            return Window.from(List.of(), ScrollPosition::offset);
+        }
+
+        List<Long> itemIds = items.map(Item::getId).getContent();
+        Map<Long, ItemBookingDates> bookingDatesByItemId = itemBookingSummaryRepository
+                .findBookingDatesByItemIds(itemIds, LocalDateTime.now()).stream()
+                .collect(Collectors.toMap(ItemBookingDates::getItemId, Function.identity()));
+        Map<Long, List<ItemCommentResponse>> commentsByItemId = commentRepository
+                .findLatestByItemIds(itemIds, LATEST_COMMENTS_PER_ITEM).stream()
+                .collect(Collectors.groupingBy(
+                        ItemCommentView::getItemId,
+                        Collectors.mapping(commentMapper::commentViewToResponse, Collectors.toList())));
+
+        return items.map(item -> {
+            ItemBookingDates bookingDates = bookingDatesByItemId.get(item.getId());
+            List<ItemCommentResponse> itemComments = commentsByItemId.getOrDefault(item.getId(), List.of());
+            return itemMapper.itemToResponseBookingComments(
+                    item,
+                    bookingDates == null ? null : bookingDates.getNextBooking(),
+                    bookingDates == null ? null : bookingDates.getLastBooking(),
+                    itemComments
+            );
+        });
+    }
+
+    @Override
+    public Window<ItemCommentResponse> getItemComments(Long itemId, String cursor, Integer size) {
+        Window<Comment> comments = commentRepository.findByItem_IdOrderByCreationDateDescIdDesc(
+                itemId,
+                KeysetCursor.decode(cursor, COMMENT_CURSOR_KEYS),
+                Limit.of(size)
+        );
+        if (comments.isEmpty() && !itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Item with id %s not found", itemId));
+        }
+        return comments.map(commentMapper::commentToResponse);
     }
 
     @Override
@@ -122,27 +217,31 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemResponse> searchItems(String query) {
-        return itemRepository.findItemsByNameLikeIgnoreCaseAndAvailableTrue(query).stream()
+    public List<ItemResponse> searchItems(String query, Integer size) {
+        return itemSearchEngine.search(query, size).stream()
                 .map(itemMapper::itemToResponse).toList();
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = "items", key = "#itemId")
     public MergeCommentResponse addComment(CreateCommentRequest createCommentRequest, Long itemId, Long authorId) {
         Item item = getItem(itemId);
         User author = userMapper.responseToUser(userService.getUser(authorId));
 
-        LocalDateTime now = LocalDateTime.now();
-        if (bookingRepository.findByItem_IdAndBooker_IdAndEndDateBeforeOrderByStartDateDesc(itemId, authorId, now).isEmpty()) {
+        if (!completedBookingLookup.hasCompletedBooking(itemId, authorId)) {
             throw new ValidationException(String.format("Item id=%d completed booking of user id=%d not found", itemId, authorId));
         }
 
         Comment comment = commentMapper.createRequestToComment(createCommentRequest, item, author);
         comment.setCreationDate(LocalDateTime.now());
-        return commentMapper.commentToMergeResponse(
+        MergeCommentResponse commentResponse = commentMapper.commentToMergeResponse(
                 commentRepository.save(comment),
                 itemMapper.itemToResponse(item),
                 author.getName());
+        itemRepository.incrementCommentsVersion(itemId);
+        outboxPublisher.publish(OutboxEventType.COMMENT_ADDED, commentResponse.getId(), commentResponse);
+        return commentResponse;
     }
 
     private Item getItem(Long itemId) {
@@ -154,21 +253,27 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
-    private Item getUpdatedOldItem(Item item) {
-        Item oldItem = getItem(item.getId());
-        if (!item.getOwner().getId()
-                .equals(oldItem.getOwner().getId())) {
-            throw new AuthorizationException("Authorization failed");
-        }
-        if (item.getName() != null) {
-            oldItem.setName(item.getName());
-        }
-        if (item.getDescription() != null) {
-            oldItem.setDescription(item.getDescription());
+    // a rolled back change never reaches the search index
+    private void indexAfterCommit(Item item) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            itemSearchEngine.index(item);
+            return;
         }
-        if (item.getAvailable() != null) {
-            oldItem.setAvailable(item.getAvailable());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                itemSearchEngine.index(item);
+            }
+        });
+    }
+
+    private RuntimeException updateFailure(Long itemId, Long ownerId) {
+        Item item = getItem(itemId);
+        if (!item.getOwner().getId().equals(ownerId)) {
+            return new AuthorizationException("Authorization failed");
         }
-        return oldItem;
+        return new VersionConflictException(
+                String.format("Item id=%d was modified concurrently, current version is %d", itemId, item.getVersion())
+        );
     }
 }
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class OutboxDispatcher {
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            ObjectProvider<OutboxSink> sinks,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${shareit.outbox.workers:4}") int workers,
+                            @Value("${shareit.outbox.queue-capacity:64}") int queueCapacity,
+                            @Value("${shareit.outbox.chunk-size:50}") int chunkSize,
+                            @Value("${shareit.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${shareit.outbox.initial-backoff:PT1S}") Duration initialBackoff,
+                            @Value("${shareit.outbox.max-backoff:PT10M}") Duration maxBackoff,
+                            @Value("${shareit.outbox.retention:P1D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks.orderedStream().toList();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, queue,
+                Thread.ofPlatform().name("outbox-", 0).daemon().factory());
+        this.chunkSize = chunkSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval:PT1S}")
+    public void dispatchPendingEvents() {
+        // claim only what the worker queue can still take, so a slow sink makes the poll back off
+        int freeChunks = queue.remainingCapacity();
+        if (freeChunks == 0) {
+            return;
+        }
+        List<OutboxEvent> events = claim(freeChunks * chunkSize);
+        for (int from = 0; from < events.size(); from += chunkSize) {
+            List<OutboxEvent> chunk = events.subList(from, Math.min(from + chunkSize, events.size()));
+            executor.execute(() -> deliver(chunk));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.cleanup-interval:PT1H}")
+    public void deleteProcessedEvents() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private List<OutboxEvent> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxEventRepository.findLockedByNextAttemptAtLessThanEqualOrderByIdAsc(now,
+                    Limit.of(limit));
+            if (!events.isEmpty()) {
+                outboxEventRepository.lease(events.stream().map(OutboxEvent::getId).toList(), now.plus(LEASE));
+            }
+            return events;
+        });
+    }
+
+    private void deliver(List<OutboxEvent> chunk) {
+        List<Long> processedIds = new ArrayList<>();
+        for (OutboxEvent event : chunk) {
+            try {
+                sinks.forEach(sink -> sink.handle(event));
+                processedIds.add(event.getId());
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxEventRepository.markFailed(event.getId(), nextAttemptAt(event.getAttempts() + 1), errorOf(e)));
+            }
+        }
+        if (!processedIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(processedIds, LocalDateTime.now()));
+        }
+    }
+
+    private LocalDateTime nextAttemptAt(int attempts) {
+        if (attempts >= maxAttempts) {
+            return null;
+        }
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return LocalDateTime.now().plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff);
+    }
+
+    private static String errorOf(RuntimeException e) {
+        String error = e.getClass().getName() + ": " + e.getMessage();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.outbox;
+
+// delivery is at least once and unordered, and a failure retries the event for every sink
+public interface OutboxSink {
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.pagination;
+
+import jakarta.validation.ValidationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// opaque cursor holding the sort keys of the last row of a page
+public final class KeysetCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String KEY_SEPARATOR = ";";
+    private static final String VALUE_SEPARATOR = "=";
+
+    private KeysetCursor() {
+    }
+
+    public static ScrollPosition decode(String cursor, Map<String, Function<String, Object>> keyParsers) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String pair : decoded.split(KEY_SEPARATOR)) {
+                String[] keyValue = pair.split(VALUE_SEPARATOR, 2);
+                Function<String, Object> parser = keyParsers.get(keyValue[0]);
+                if (parser == null || keyValue.length != 2) {
+                    throw new ValidationException(String.format("Cursor %s is not valid", cursor));
+                }
+                keys.put(keyValue[0], parser.apply(keyValue[1]));
+            }
+        } catch (RuntimeException e) {
+            throw new ValidationException(String.format("Cursor %s is not valid", cursor));
+        }
+
+        if (!keys.keySet().equals(keyParsers.keySet())) {
+            throw new ValidationException(String.format("Cursor %s is not valid", cursor));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public static String encode(KeysetScrollPosition position) {
+        String keys = position.getKeys().entrySet().stream()
+                .map(entry -> entry.getKey() + VALUE_SEPARATOR + entry.getValue())
+                .collect(Collectors.joining(KEY_SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static <T> ResponseEntity<List<T>> toResponse(Window<T> window) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (window.hasNext() && !window.isEmpty()
+                && window.positionAt(window.size() - 1) instanceof KeysetScrollPosition position) {
+            response.header(NEXT_CURSOR_HEADER, encode(position));
+        }
+        return response.body(window.getContent());
+    }
+}
@@ -2,7 +2,9 @@ package ru.practicum.shareit.request;
 
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.RequestCreateDto;
 import ru.practicum.shareit.request.dto.RequestResponse;
 import ru.practicum.shareit.request.dto.RequestWithAnswersResponse;
@@ -32,8 +34,10 @@ public class ItemRequestController {
 
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public List<RequestResponse> getAllRequests() {
-        return requestService.findAllRequests();
+    public ResponseEntity<List<RequestResponse>> getAllRequests(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false, defaultValue = "20") Integer size) {
+        return KeysetCursor.toResponse(requestService.findAllRequests(userId, cursor, size));
     }
 
     @GetMapping("/{requestId}")
@@ -1,5 +1,8 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -7,5 +10,5 @@ import java.util.List;
 public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findRequestsByRequester_IdOrderByCreationDateDesc(Long requesterId);
 
-    List<Request> findAllByOrderByCreationDateDesc();
+    Window<Request> findByRequester_IdNotOrderByCreationDateDescIdDesc(Long requesterId, ScrollPosition position, Limit limit);
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.data.domain.Window;
 import ru.practicum.shareit.request.dto.RequestCreateDto;
 import ru.practicum.shareit.request.dto.RequestResponse;
 import ru.practicum.shareit.request.dto.RequestWithAnswersResponse;
@@ -11,7 +12,7 @@ public interface RequestService {
 
     List<RequestWithAnswersResponse> findAllUserRequests(Long requesterId);
 
-    List<RequestResponse> findAllRequests();
+    Window<RequestResponse> findAllRequests(Long userId, String cursor, Integer size);
 
     RequestWithAnswersResponse findRequestById(Long id);
 }
@@ -1,10 +1,13 @@
 package ru.practicum.shareit.request.service.impl;
 
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.Request;
 import ru.practicum.shareit.request.RequestMapper;
 import ru.practicum.shareit.request.RequestRepository;
@@ -20,11 +23,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class RequestServiceImpl implements RequestService {
+    private static final Map<String, Function<String, Object>> CURSOR_KEYS = Map.of(
+            "creationDate", LocalDateTime::parse,
+            "id", Long::valueOf);
+
     private RequestRepository requestRepository;
     private UserService userService;
     private ItemService itemService;
@@ -56,10 +64,12 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
-    public List<RequestResponse> findAllRequests() {
-        return requestRepository.findAllByOrderByCreationDateDesc().stream()
-                .map(requestMapper::requestToResponse)
-                .toList();
+    public Window<RequestResponse> findAllRequests(Long userId, String cursor, Integer size) {
+        return requestRepository.findByRequester_IdNotOrderByCreationDateDescIdDesc(
+                userId,
+                KeysetCursor.decode(cursor, CURSOR_KEYS),
+                Limit.of(size)
+        ).map(requestMapper::requestToResponse);
     }
 
     @Override
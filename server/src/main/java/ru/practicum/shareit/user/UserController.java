@@ -1,8 +1,11 @@
 package ru.practicum.shareit.user;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.conditional.EntityTag;
 import ru.practicum.shareit.user.dto.CreateUserRequest;
 import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserResponse;
@@ -21,16 +24,17 @@ public class UserController {
     }
 
     @PatchMapping("/{userId}")
-    @ResponseStatus(HttpStatus.OK)
-    public UserResponse updateUser(@RequestBody UpdateUserRequest updateUserRequest,
-                           @PathVariable Long userId) {
-        return userService.updateUser(userId, updateUserRequest);
+    public ResponseEntity<UserResponse> updateUser(@RequestBody UpdateUserRequest updateUserRequest,
+                                                   @PathVariable Long userId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserResponse user = userService.updateUser(userId, updateUserRequest, EntityTag.parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTag.of(user.getVersion())).body(user);
     }
 
     @GetMapping("/{userId}")
-    @ResponseStatus(HttpStatus.OK)
-    public UserResponse getUser(@PathVariable Long userId) {
-        return userService.getUser(userId);
+    public ResponseEntity<UserResponse> getUser(@PathVariable Long userId) {
+        UserResponse user = userService.getUser(userId);
+        return ResponseEntity.ok().eTag(EntityTag.of(user.getVersion())).body(user);
     }
 
     @DeleteMapping("/{userId}")
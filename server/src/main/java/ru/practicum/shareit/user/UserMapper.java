@@ -8,9 +8,11 @@ import ru.practicum.shareit.user.dto.UserResponse;
 
 @Mapper
 public interface UserMapper {
+    @Mapping(target = "version", ignore = true)
     User createRequestToUser(CreateUserRequest createUserRequest);
 
     @Mapping(target = "id", source = "id")
+    @Mapping(target = "version", ignore = true)
     User updateRequestToUser(UpdateUserRequest updateUserRequest, Long id);
 
     UserResponse userToResponse(User user);
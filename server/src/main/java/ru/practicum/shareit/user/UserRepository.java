@@ -1,7 +1,23 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsByEmail(String email);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.name = COALESCE(:name, u.name), u.email = COALESCE(:email, u.email), "
+            + "u.version = u.version + 1 WHERE u.id = :userId")
+    int updatePartially(Long userId, String name, String email);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.name = COALESCE(:name, u.name), u.email = COALESCE(:email, u.email), "
+            + "u.version = u.version + 1 WHERE u.id = :userId AND u.version = :version")
+    int updatePartiallyIfVersion(Long userId, String name, String email, Long version);
+
+    // the items show their comments with author names, so a rename changes their ETags
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Item i SET i.commentsVersion = i.commentsVersion + 1 "
+            + "WHERE i.id IN (SELECT c.item.id FROM Comment c WHERE c.author.id = :authorId)")
+    int incrementCommentsVersionOfCommentedItems(Long authorId);
 }
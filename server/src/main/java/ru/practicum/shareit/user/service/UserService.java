@@ -7,7 +7,7 @@ import ru.practicum.shareit.user.dto.UserResponse;
 public interface UserService {
     UserResponse createUser(CreateUserRequest createUserRequest);
 
-    UserResponse updateUser(Long userid, UpdateUserRequest updateUserRequest);
+    UserResponse updateUser(Long userid, UpdateUserRequest updateUserRequest, Long version);
 
     UserResponse getUser(Long userId);
 
@@ -1,9 +1,17 @@
 package ru.practicum.shareit.user.service.impl;
 
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.exceptions.EmailAlreadyExistsException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
+import ru.practicum.shareit.exception.exceptions.VersionConflictException;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserRepository;
@@ -12,38 +20,58 @@ import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserResponse;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
 @AllArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_CONSTRAINT = "users_email_key";
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
 
     @Override
     public UserResponse createUser(CreateUserRequest createUserRequest) {
-        if (userRepository.existsByEmail(createUserRequest.getEmail())) {
-            throw new EmailAlreadyExistsException(
-                    String.format("User with email %s already exists", createUserRequest.getEmail())
-            );
-        }
         User user = userMapper.createRequestToUser(createUserRequest);
-        return userMapper.userToResponse(userRepository.save(user));
+        try {
+            return userMapper.userToResponse(userRepository.saveAndFlush(user));
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e, createUserRequest.getEmail());
+        }
     }
 
+    // one UPDATE guarded by the version when given; the row is read back for the response and the cache
     @Override
-    public UserResponse updateUser(Long userId, UpdateUserRequest updateUserRequest) {
-        if (userRepository.existsByEmail(updateUserRequest.getEmail())) {
-            throw new EmailAlreadyExistsException(
-                    String.format("User with email %s already exists", updateUserRequest.getEmail())
+    @Transactional
+    @Caching(put = @CachePut(cacheNames = "users", key = "#userId"),
+            evict = @CacheEvict(cacheNames = "items", allEntries = true, condition = "#updateUserRequest.name != null"))
+    public UserResponse updateUser(Long userId, UpdateUserRequest updateUserRequest, Long version) {
+        int updated;
+        try {
+            updated = version == null
+                    ? userRepository.updatePartially(userId, updateUserRequest.getName(), updateUserRequest.getEmail())
+                    : userRepository.updatePartiallyIfVersion(userId, updateUserRequest.getName(), updateUserRequest.getEmail(), version);
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e, updateUserRequest.getEmail());
+        }
+
+        User user = userRepository.findById(userId).orElseThrow(
+                () -> new NotFoundException(String.format("User with id %d not found", userId))
+        );
+        if (updated == 0) {
+            throw new VersionConflictException(
+                    String.format("User id=%d was modified concurrently, current version is %d", userId, user.getVersion())
             );
         }
-        User user = userMapper.updateRequestToUser(updateUserRequest, userId);
-        User oldUser = getUpdatedOldUser(user);
-        return userMapper.userToResponse(userRepository.save(oldUser));
+        if (updateUserRequest.getName() != null) {
+            userRepository.incrementCommentsVersionOfCommentedItems(userId);
+        }
+        return userMapper.userToResponse(user);
     }
 
     @Override
+    @Cacheable(cacheNames = "users", key = "#userId")
     public UserResponse getUser(Long userId) {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isPresent()) {
@@ -54,18 +82,18 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = "users", key = "#userId")
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
     }
 
-    private User getUpdatedOldUser(User user) {
-        User oldUser = userMapper.responseToUser(getUser(user.getId()));
-        if (user.getEmail() != null) {
-            oldUser.setEmail(user.getEmail());
-        }
-        if (user.getName() != null) {
-            oldUser.setName(user.getName());
+    // H2 reports the constraint through its backing index, whose name starts with users_email_key
+    private static RuntimeException translateEmailConflict(DataIntegrityViolationException e, String email) {
+        if (e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+            return new EmailAlreadyExistsException(String.format("User with email %s already exists", email));
         }
-        return oldUser;
+        return e;
     }
 }
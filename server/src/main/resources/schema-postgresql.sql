@@ -0,0 +1,17 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- substring search over item names for /items/search
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING gin (name gin_trgm_ops);
+
+-- move sequences past ids assigned by the identity columns before the switch to sequences;
+-- a sequence that is already ahead of its table is left alone so running instances keep their id blocks
+SELECT setval('users_seq', (SELECT MAX(id) + 1 FROM users), false)
+WHERE (SELECT MAX(id) FROM users) >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM users_seq);
+SELECT setval('requests_seq', (SELECT MAX(id) + 1 FROM requests), false)
+WHERE (SELECT MAX(id) FROM requests) >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM requests_seq);
+SELECT setval('items_seq', (SELECT MAX(id) + 1 FROM items), false)
+WHERE (SELECT MAX(id) FROM items) >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM items_seq);
+SELECT setval('comments_seq', (SELECT MAX(id) + 1 FROM comments), false)
+WHERE (SELECT MAX(id) FROM comments) >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM comments_seq);
+SELECT setval('bookings_seq', (SELECT MAX(id) + 1 FROM bookings), false)
+WHERE (SELECT MAX(id) FROM bookings) >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM bookings_seq);
@@ -1,7 +1,9 @@
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(50) NOT NULL,
-    email VARCHAR(50) NOT NULL UNIQUE
+    email VARCHAR(50) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT users_email_key UNIQUE (email)
 );
 
 CREATE TABLE IF NOT EXISTS requests (
@@ -17,7 +19,9 @@ CREATE TABLE IF NOT EXISTS items (
     description TEXT NOT NULL,
     available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL REFERENCES users(id),
-    request_id BIGINT REFERENCES requests(id)
+    request_id BIGINT REFERENCES requests(id),
+    version BIGINT NOT NULL DEFAULT 0,
+    comments_version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS comments (
@@ -25,7 +29,8 @@ CREATE TABLE IF NOT EXISTS comments (
     text TEXT NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items(id),
     author_id BIGINT NOT NULL REFERENCES users(id),
-    creation_date TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP
+    creation_date TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
@@ -34,9 +39,85 @@ CREATE TABLE IF NOT EXISTS bookings (
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items(id),
     booker_id BIGINT NOT NULL REFERENCES users(id),
-    status VARCHAR(20) NOT NULL
+    status VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT PRIMARY KEY REFERENCES items(id),
+    last_start TIMESTAMP WITHOUT TIME ZONE,
+    next_start TIMESTAMP WITHOUT TIME ZONE,
+    updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE,
+    processed_at TIMESTAMP WITHOUT TIME ZONE,
+    last_error TEXT
+);
+
+-- optimistic lock versions, also used as ETags; added separately for databases created before the column existed
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- part of the item ETag, bumped when a comment is added or its author is renamed
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comments_version BIGINT NOT NULL DEFAULT 0;
+
+-- ids come from pooled sequences (allocation size 50) so that Hibernate can batch inserts
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON items (owner_id);
+
+-- latest comments per item and the item comment pages, newest first
+DROP INDEX IF EXISTS comments_item_id_idx;
+CREATE INDEX IF NOT EXISTS comments_item_created_idx ON comments (item_id, creation_date DESC, id DESC);
+
+-- items commented by a user, whose ETags change when the user is renamed
+CREATE INDEX IF NOT EXISTS comments_author_id_idx ON comments (author_id);
+
+-- booker lists: ALL/CURRENT/PAST/FUTURE and WAITING/REJECTED, ordered by start_date DESC, id DESC
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx ON bookings (booker_id, status, start_date DESC, id DESC);
+
+-- owner lists go through items.owner_id, then bookings by item
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_date DESC, id DESC);
+
+-- completed booking check for comments
+CREATE INDEX IF NOT EXISTS bookings_item_booker_end_idx ON bookings (item_id, booker_id, end_date);
+
+-- booking summaries whose next booking has started, picked up by the scheduled refresh
+CREATE INDEX IF NOT EXISTS item_booking_summary_next_start_idx ON item_booking_summary (next_start);
+
+-- summaries for items booked before the table existed
+INSERT INTO item_booking_summary (item_id, last_start, next_start, updated_at)
+SELECT b.item_id,
+       MAX(CASE WHEN b.start_date < LOCALTIMESTAMP THEN b.start_date END),
+       MIN(CASE WHEN b.start_date > LOCALTIMESTAMP THEN b.start_date END),
+       LOCALTIMESTAMP
+FROM bookings b
+WHERE NOT EXISTS (SELECT 1 FROM item_booking_summary s WHERE s.item_id = b.item_id)
+GROUP BY b.item_id;
+
+-- pending outbox events in publication order; delivered and parked events have no next attempt
+CREATE INDEX IF NOT EXISTS outbox_events_next_attempt_idx ON outbox_events (next_attempt_at, id);
+
+-- other users' requests, newest first
+CREATE INDEX IF NOT EXISTS requests_creation_date_idx ON requests (creation_date DESC, id DESC);
+
 
 -- TRUNCATE TABLE users RESTART IDENTITY CASCADE;
 -- TRUNCATE TABLE requests RESTART IDENTITY CASCADE;
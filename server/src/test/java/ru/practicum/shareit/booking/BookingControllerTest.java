@@ -6,9 +6,15 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.ApproveBookingBatchRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.CreateBookingBatchRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemResponse;
@@ -19,8 +25,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BookingController.class)
 public class BookingControllerTest {
@@ -81,6 +86,42 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("WAITING"));
     }
 
+    @Test
+    void testCreateBookings() throws Exception {
+        CreateBookingRequest request = CreateBookingRequest.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        CreateBookingBatchRequest batchRequest = CreateBookingBatchRequest.builder()
+                .bookings(List.of(request, request))
+                .build();
+
+        BookingResponse response = BookingResponse.builder()
+                .id(1L)
+                .start(request.getStart())
+                .end(request.getEnd())
+                .status(Status.WAITING)
+                .build();
+
+        Mockito.when(bookingService.createBookings(Mockito.any(CreateBookingBatchRequest.class), Mockito.eq(1L)))
+                .thenReturn(List.of(
+                        BookingBatchResult.builder().itemId(1L).booking(response).build(),
+                        BookingBatchResult.builder().itemId(1L).error("Item 1 is already booked for this period").build()
+                ));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].itemId").value(1L))
+                .andExpect(jsonPath("$[0].booking.id").value(1L))
+                .andExpect(jsonPath("$[0].booking.status").value("WAITING"))
+                .andExpect(jsonPath("$[1].booking").isEmpty())
+                .andExpect(jsonPath("$[1].error").value("Item 1 is already booked for this period"));
+    }
+
     @Test
     void testSetApproved() throws Exception {
         ItemResponse item = ItemResponse.builder()
@@ -121,6 +162,29 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("APPROVED"));
     }
 
+    @Test
+    void testSetApprovedBatch() throws Exception {
+        ApproveBookingBatchRequest request = ApproveBookingBatchRequest.builder()
+                .bookingIds(List.of(1L, 2L))
+                .build();
+
+        Mockito.when(bookingService.setApprovedBatch(Mockito.any(ApproveBookingBatchRequest.class), Mockito.eq(true), Mockito.eq(1L)))
+                .thenReturn(List.of(
+                        BookingResponse.builder().id(1L).status(Status.APPROVED).build(),
+                        BookingResponse.builder().id(2L).status(Status.APPROVED).build()
+                ));
+
+        mockMvc.perform(patch("/bookings/batch?approved=true")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].id").value(2L))
+                .andExpect(jsonPath("$[1].status").value("APPROVED"));
+    }
+
     @Test
     void testGetBooking() throws Exception {
         ItemResponse item = ItemResponse.builder()
@@ -144,6 +208,7 @@ public class BookingControllerTest {
                 .status(Status.WAITING)
                 .build();
 
+        Mockito.when(bookingService.getBookingTag(1L, 1L)).thenReturn("\"0-0\"");
         Mockito.when(bookingService.getBooking(Mockito.eq(1L), Mockito.eq(1L)))
                 .thenReturn(response);
 
@@ -151,6 +216,7 @@ public class BookingControllerTest {
                         .header("X-Sharer-User-Id", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-0\""))
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.item.id").value(1L))
                 .andExpect(jsonPath("$.item.name").value("item name test"))
@@ -161,6 +227,19 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("WAITING"));
     }
 
+    @Test
+    void testGetBookingNotModified() throws Exception {
+        Mockito.when(bookingService.getBookingTag(1L, 1L)).thenReturn("\"1-0\"");
+
+        mockMvc.perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        Mockito.verify(bookingService, Mockito.never()).getBooking(Mockito.anyLong(), Mockito.anyLong());
+    }
+
     @Test
     void testGetBookerBookings() throws Exception {
         ItemResponse item = ItemResponse.builder()
@@ -186,8 +265,8 @@ public class BookingControllerTest {
 
         List<BookingResponse> bookings = Collections.singletonList(response);
 
-        Mockito.when(bookingService.getBookerBookings(Mockito.eq(1L), Mockito.eq(State.ALL)))
-                .thenReturn(bookings);
+        Mockito.when(bookingService.getBookerBookings(Mockito.eq(1L), Mockito.eq(State.ALL), Mockito.isNull(), Mockito.eq(20)))
+                .thenReturn(Window.from(bookings, ScrollPosition::offset));
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -229,8 +308,8 @@ public class BookingControllerTest {
 
         List<BookingResponse> bookings = Collections.singletonList(response);
 
-        Mockito.when(bookingService.getOwnerBookings(Mockito.eq(1L), Mockito.eq(State.ALL)))
-                .thenReturn(bookings);
+        Mockito.when(bookingService.getOwnerBookings(Mockito.eq(1L), Mockito.eq(State.ALL), Mockito.isNull(), Mockito.eq(20)))
+                .thenReturn(Window.from(bookings, ScrollPosition::offset));
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.dto.CreateBookingRequest;
+import ru.practicum.shareit.booking.service.impl.BookingServiceImpl;
+import ru.practicum.shareit.exception.exceptions.UnavailableItemBookingException;
+import ru.practicum.shareit.item.dto.CreateItemRequest;
+import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.CreateUserRequest;
+import ru.practicum.shareit.user.dto.UserResponse;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shareit-concurrency",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=shareit",
+        "spring.datasource.password=shareit",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class BookingServiceImplConcurrencyTest {
+    private static final int ATTEMPTS = 200;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private UserResponse bookerResponse;
+    private ItemResponse itemResponse;
+
+    @BeforeEach
+    void setUp() {
+        bookerResponse = userService.createUser(CreateUserRequest.builder()
+                .name("booker")
+                .email(UUID.randomUUID() + "@example.com")
+                .build());
+        UserResponse ownerResponse = userService.createUser(CreateUserRequest.builder()
+                .name("owner")
+                .email(UUID.randomUUID() + "@example.com")
+                .build());
+        itemResponse = itemService.createItem(CreateItemRequest.builder()
+                .name("hot item")
+                .description("hot item description")
+                .available(true)
+                .build(), ownerResponse.getId());
+    }
+
+    @Test
+    void shouldAcceptExactlyOneOfConcurrentOverlappingBookings() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<Throwable> results = bookConcurrently(attempt -> CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(start.plusMinutes(attempt % 30))
+                .end(start.plusHours(1))
+                .build());
+
+        assertThat(results).filteredOn(result -> result == null).hasSize(1);
+        assertThat(results).filteredOn(result -> result != null)
+                .hasSize(ATTEMPTS - 1)
+                .allSatisfy(result -> assertThat(result).isInstanceOf(UnavailableItemBookingException.class));
+        assertThat(bookingRepository.findAll())
+                .filteredOn(booking -> booking.getItem().getId().equals(itemResponse.getId()))
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldAcceptAllConcurrentNonOverlappingBookings() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<Throwable> results = bookConcurrently(attempt -> CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(start.plusHours(attempt))
+                .end(start.plusHours(attempt).plusMinutes(30))
+                .build());
+
+        assertThat(results).containsOnlyNulls();
+    }
+
+    private List<Throwable> bookConcurrently(IntFunction<CreateBookingRequest> requests) throws Exception {
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Throwable>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+                CreateBookingRequest request = requests.apply(attempt);
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        bookingService.createBooking(request, bookerResponse.getId());
+                        return null;
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            startGate.countDown();
+
+            List<Throwable> results = new ArrayList<>();
+            for (Future<Throwable> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+}
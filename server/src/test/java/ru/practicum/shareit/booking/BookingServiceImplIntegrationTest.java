@@ -1,26 +1,50 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.validation.ValidationException;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.shareit.booking.dto.ApproveBookingBatchRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.CreateBookingBatchRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 import ru.practicum.shareit.booking.service.impl.BookingServiceImpl;
+import ru.practicum.shareit.conditional.EntityTag;
 import ru.practicum.shareit.exception.exceptions.AuthorizationException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
 import ru.practicum.shareit.exception.exceptions.UnavailableItemBookingException;
 import ru.practicum.shareit.item.dto.CreateItemRequest;
 import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.CreateUserRequest;
+import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserResponse;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -32,7 +56,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
         "spring.datasource.driver-class-name=org.h2.Driver",
         "spring.datasource.username=shareit",
         "spring.datasource.password=shareit",
-        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "shareit.outbox.poll-interval=PT1H"
 })
 class BookingServiceImplIntegrationTest {
 
@@ -48,6 +74,18 @@ class BookingServiceImplIntegrationTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Autowired
+    private ItemBookingSummaryRefresher itemBookingSummaryRefresher;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private UserResponse userResponse;
     private UserResponse ownerResponse;
     private ItemResponse itemResponse;
@@ -95,6 +133,91 @@ class BookingServiceImplIntegrationTest {
         assertThat(savedBooking.getBooker().getId()).isEqualTo(userResponse.getId());
     }
 
+    @Test
+    void shouldCreateBookingsInBatch() {
+        ItemResponse secondItem = itemService.createItem(CreateItemRequest.builder()
+                .name("second item")
+                .description("second item description")
+                .available(true)
+                .build(), ownerResponse.getId());
+        ItemResponse unavailableItem = itemService.createItem(CreateItemRequest.builder()
+                .name("unavailable item")
+                .description("unavailable item description")
+                .available(false)
+                .build(), ownerResponse.getId());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.createBooking(CreateBookingRequest.builder()
+                .itemId(secondItem.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build(), userResponse.getId());
+
+        CreateBookingBatchRequest batchRequest = CreateBookingBatchRequest.builder()
+                .bookings(List.of(
+                        CreateBookingRequest.builder().itemId(itemResponse.getId()).start(start).end(start.plusDays(1)).build(),
+                        CreateBookingRequest.builder().itemId(itemResponse.getId()).start(start.plusHours(12)).end(start.plusDays(2)).build(),
+                        CreateBookingRequest.builder().itemId(itemResponse.getId()).start(start.plusDays(1)).end(start.plusDays(2)).build(),
+                        CreateBookingRequest.builder().itemId(secondItem.getId()).start(start.plusHours(1)).end(start.plusHours(2)).build(),
+                        CreateBookingRequest.builder().itemId(unavailableItem.getId()).start(start).end(start.plusDays(1)).build(),
+                        CreateBookingRequest.builder().itemId(999L).start(start).end(start.plusDays(1)).build()
+                ))
+                .build();
+
+        List<BookingBatchResult> results = bookingService.createBookings(batchRequest, userResponse.getId());
+
+        assertThat(results).extracting(result -> result.getBooking() != null)
+                .containsExactly(true, false, true, false, false, false);
+        assertThat(results.get(1).getError()).isEqualTo(String.format("Item %d is already booked for this period", itemResponse.getId()));
+        assertThat(results.get(3).getError()).isEqualTo(String.format("Item %d is already booked for this period", secondItem.getId()));
+        assertThat(results.get(4).getError()).isEqualTo(String.format("Item %d is not available", unavailableItem.getId()));
+        assertThat(results.get(5).getError()).isEqualTo("Item with id 999 not found");
+        assertThat(results.get(0).getBooking().getId()).isNotNull();
+        assertThat(results.get(0).getBooking().getItem().getName()).isEqualTo("test item");
+        assertThat(results.get(0).getBooking().getBooker().getId()).isEqualTo(userResponse.getId());
+        assertThat(bookingRepository.findAll())
+                .filteredOn(booking -> booking.getItem().getId().equals(itemResponse.getId()))
+                .hasSize(2);
+    }
+
+    @Test
+    void shouldRejectOnlyBatchEntriesWithMissingOrInvertedDates() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        CreateBookingBatchRequest batchRequest = CreateBookingBatchRequest.builder()
+                .bookings(List.of(
+                        CreateBookingRequest.builder().itemId(itemResponse.getId()).start(null).end(start.plusDays(1)).build(),
+                        CreateBookingRequest.builder().itemId(itemResponse.getId()).start(start).end(start.plusDays(1)).build(),
+                        CreateBookingRequest.builder().itemId(itemResponse.getId()).start(start.plusDays(3)).end(null).build(),
+                        CreateBookingRequest.builder().itemId(itemResponse.getId()).start(start.plusDays(5)).end(start.plusDays(4)).build()
+                ))
+                .build();
+
+        List<BookingBatchResult> results = bookingService.createBookings(batchRequest, userResponse.getId());
+
+        assertThat(results).extracting(BookingBatchResult::getError).containsExactly(
+                "Start and end dates are required",
+                null,
+                "Start and end dates are required",
+                "Start date is after end date");
+        assertThat(results.get(1).getBooking().getId()).isNotNull();
+        assertThat(bookingRepository.findAll())
+                .filteredOn(booking -> booking.getItem().getId().equals(itemResponse.getId()))
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldThrowNotFoundExceptionWhenBookerNotFoundForBatch() {
+        CreateBookingBatchRequest batchRequest = CreateBookingBatchRequest.builder()
+                .bookings(List.of(CreateBookingRequest.builder()
+                        .itemId(itemResponse.getId())
+                        .start(LocalDateTime.now().plusDays(1))
+                        .end(LocalDateTime.now().plusDays(2))
+                        .build()))
+                .build();
+
+        assertThatThrownBy(() -> bookingService.createBookings(batchRequest, 999L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
     @Test
     void shouldThrowNotFoundExceptionWhenUserNotFoundForCreateBooking() {
         CreateBookingRequest createBookingRequest = CreateBookingRequest.builder()
@@ -155,6 +278,40 @@ class BookingServiceImplIntegrationTest {
         assertThat(savedBooking.getStatus()).isEqualTo(Status.APPROVED);
     }
 
+    @Test
+    void shouldNotReapproveRejectedBookingWhosePeriodWasBookedAgain() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        CreateBookingRequest createBookingRequest = CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+        BookingResponse rejected = bookingService.createBooking(createBookingRequest, userResponse.getId());
+        bookingService.setApproved(rejected.getId(), false, ownerResponse.getId());
+        bookingService.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(start.plusHours(12))
+                .end(start.plusDays(2))
+                .build(), userResponse.getId());
+
+        assertThatThrownBy(() -> bookingService.setApproved(rejected.getId(), true, ownerResponse.getId()))
+                .isInstanceOf(UnavailableItemBookingException.class);
+        assertThat(bookingRepository.findById(rejected.getId()).orElseThrow().getStatus()).isEqualTo(Status.REJECTED);
+    }
+
+    @Test
+    void shouldReapproveRejectedBookingWhosePeriodIsStillFree() {
+        BookingResponse rejected = bookingService.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), userResponse.getId());
+        bookingService.setApproved(rejected.getId(), false, ownerResponse.getId());
+
+        assertThat(bookingService.setApproved(rejected.getId(), true, ownerResponse.getId()).getStatus())
+                .isEqualTo(Status.APPROVED);
+    }
+
     @Test
     void shouldThrowAuthorizationExceptionWhenUserIsNotOwnerForSetApproved() {
         CreateBookingRequest createBookingRequest = CreateBookingRequest.builder()
@@ -168,6 +325,68 @@ class BookingServiceImplIntegrationTest {
                 .isInstanceOf(AuthorizationException.class);
     }
 
+    @Test
+    void shouldSetApprovedBatchWithConstantNumberOfStatements() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            bookingIds.add(bookingService.createBooking(CreateBookingRequest.builder()
+                    .itemId(itemResponse.getId())
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .build(), userResponse.getId()).getId());
+        }
+        bookingService.setApproved(bookingIds.getFirst(), false, ownerResponse.getId());
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<BookingResponse> approved = bookingService.setApprovedBatch(
+                ApproveBookingBatchRequest.builder().bookingIds(bookingIds).build(), true, ownerResponse.getId());
+
+        entityManager.flush();
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("ownership, bulk update, updated bookings, item summary refresh, one batched outbox insert "
+                        + "and at most one id block allocation")
+                .isBetween(5L, 6L);
+        assertThat(approved)
+                .extracting(BookingResponse::getId)
+                .containsExactlyElementsOf(bookingIds.subList(1, bookingIds.size()));
+        assertThat(approved).allSatisfy(booking -> {
+            assertThat(booking.getStatus()).isEqualTo(Status.APPROVED);
+            assertThat(booking.getBooker().getName()).isEqualTo(userResponse.getName());
+        });
+        assertThat(bookingRepository.findById(bookingIds.getFirst()).orElseThrow().getStatus()).isEqualTo(Status.REJECTED);
+    }
+
+    @Test
+    void shouldThrowAuthorizationExceptionWhenUserIsNotOwnerForSetApprovedBatch() {
+        BookingResponse bookingResponse = bookingService.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), userResponse.getId());
+        ApproveBookingBatchRequest request = ApproveBookingBatchRequest.builder()
+                .bookingIds(List.of(bookingResponse.getId()))
+                .build();
+
+        assertThatThrownBy(() -> bookingService.setApprovedBatch(request, true, userResponse.getId()))
+                .isInstanceOf(AuthorizationException.class);
+        assertThat(bookingRepository.findById(bookingResponse.getId()).orElseThrow().getStatus()).isEqualTo(Status.WAITING);
+    }
+
+    @Test
+    void shouldThrowNotFoundExceptionWhenBookingNotFoundForSetApprovedBatch() {
+        ApproveBookingBatchRequest request = ApproveBookingBatchRequest.builder()
+                .bookingIds(List.of(999L))
+                .build();
+
+        assertThatThrownBy(() -> bookingService.setApprovedBatch(request, true, ownerResponse.getId()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
     @Test
     void shouldGetBooking() {
         CreateBookingRequest createBookingRequest = CreateBookingRequest.builder()
@@ -185,6 +404,27 @@ class BookingServiceImplIntegrationTest {
         assertThat(foundBooking.getBooker().getId()).isEqualTo(userResponse.getId());
     }
 
+    @Test
+    void shouldAnswerIfNoneMatchWithBodyAfterBookerIsUpdated() {
+        BookingResponse bookingResponse = bookingService.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), userResponse.getId());
+        String tag = bookingService.getBookingTag(bookingResponse.getId(), userResponse.getId());
+
+        userService.updateUser(userResponse.getId(), UpdateUserRequest.builder().name("renamed booker").build(), null);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, tag);
+        ResponseEntity<BookingResponse> response = EntityTag.toResponse(new ServletWebRequest(request),
+                bookingService.getBookingTag(bookingResponse.getId(), userResponse.getId()),
+                () -> ResponseEntity.ok(bookingService.getBooking(bookingResponse.getId(), userResponse.getId())));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getBooker().getName()).isEqualTo("renamed booker");
+    }
+
     @Test
     void shouldThrowAuthorizationExceptionWhenUserIsNotBookerOrOwnerForGetBooking() {
         CreateBookingRequest createBookingRequest = CreateBookingRequest.builder()
@@ -207,7 +447,7 @@ class BookingServiceImplIntegrationTest {
                 .build();
         bookingService.createBooking(createBookingRequest, userResponse.getId());
 
-        Collection<BookingResponse> bookings = bookingService.getBookerBookings(userResponse.getId(), State.ALL);
+        Collection<BookingResponse> bookings = bookingService.getBookerBookings(userResponse.getId(), State.ALL, null, 20).getContent();
 
         assertThat(bookings).hasSize(1);
         assertThat(bookings.iterator().next().getItem().getId()).isEqualTo(itemResponse.getId());
@@ -223,10 +463,206 @@ class BookingServiceImplIntegrationTest {
                 .build();
         bookingService.createBooking(createBookingRequest, userResponse.getId());
 
-        Collection<BookingResponse> bookings = bookingService.getOwnerBookings(ownerResponse.getId(), State.ALL);
+        Collection<BookingResponse> bookings = bookingService.getOwnerBookings(ownerResponse.getId(), State.ALL, null, 20).getContent();
 
         assertThat(bookings).hasSize(1);
         assertThat(bookings.iterator().next().getItem().getId()).isEqualTo(itemResponse.getId());
         assertThat(bookings.iterator().next().getBooker().getId()).isEqualTo(userResponse.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldPageBookerBookingsByCursor() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            CreateBookingRequest createBookingRequest = CreateBookingRequest.builder()
+                    .itemId(itemResponse.getId())
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .build();
+            bookingService.createBooking(createBookingRequest, userResponse.getId());
+        }
+
+        Window<BookingResponse> firstPage = bookingService.getBookerBookings(userResponse.getId(), State.ALL, null, 2);
+        String cursor = KeysetCursor.toResponse(firstPage).getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER);
+        Window<BookingResponse> secondPage = bookingService.getBookerBookings(userResponse.getId(), State.ALL, cursor, 2);
+
+        assertThat(firstPage.getContent()).hasSize(2);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(firstPage.getContent().get(0).getStart()).isAfter(firstPage.getContent().get(1).getStart());
+        assertThat(cursor).isNotNull();
+        assertThat(secondPage.getContent()).hasSize(1);
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(secondPage.getContent().getFirst().getStart()).isBefore(firstPage.getContent().get(1).getStart());
+    }
+
+    @Test
+    void shouldThrowValidationExceptionWhenCursorIsNotValid() {
+        assertThatThrownBy(() -> bookingService.getOwnerBookings(ownerResponse.getId(), State.ALL, "not-a-cursor", 2))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldListBookingsWithConstantNumberOfQueries() {
+        UserResponse secondBooker = userService.createUser(CreateUserRequest.builder()
+                .name("second user")
+                .email("second@example.com")
+                .build());
+        ItemResponse secondItem = itemService.createItem(CreateItemRequest.builder()
+                .name("second item")
+                .description("second item description")
+                .available(true)
+                .build(), ownerResponse.getId());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (ItemResponse item : List.of(itemResponse, secondItem)) {
+            for (UserResponse booker : List.of(userResponse, secondBooker)) {
+                bookingService.createBooking(CreateBookingRequest.builder()
+                        .itemId(item.getId())
+                        .start(start)
+                        .end(start.plusHours(1))
+                        .build(), booker.getId());
+                start = start.plusDays(1);
+            }
+        }
+        Cache users = ((TransactionAwareCacheDecorator) cacheManager.getCache("users")).getTargetCache();
+        users.put(ownerResponse.getId(), ownerResponse);
+        users.put(userResponse.getId(), userResponse);
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        for (State state : State.values()) {
+            entityManager.flush();
+            entityManager.clear();
+            statistics.clear();
+            bookingService.getOwnerBookings(ownerResponse.getId(), state, null, 20);
+            assertThat(statistics.getPrepareStatementCount()).as("owner %s", state).isEqualTo(1);
+
+            entityManager.clear();
+            statistics.clear();
+            bookingService.getBookerBookings(userResponse.getId(), state, null, 20);
+            assertThat(statistics.getPrepareStatementCount()).as("booker %s", state).isEqualTo(1);
+        }
+
+        entityManager.clear();
+        statistics.clear();
+        assertThat(bookingService.getOwnerBookings(ownerResponse.getId(), State.ALL, null, 20).getContent())
+                .hasSize(4)
+                .allSatisfy(booking -> assertThat(booking.getBooker().getName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCreateBookingWithOneStatementPerCheck() {
+        CreateBookingRequest createBookingRequest = CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        BookingResponse bookingResponse = bookingService.createBooking(createBookingRequest, userResponse.getId());
+        entityManager.flush();
+
+        assertThat(bookingResponse.getBooker().getName()).isEqualTo(userResponse.getName());
+        assertThat(bookingResponse.getItem().getOwnerId()).isEqualTo(ownerResponse.getId());
+        assertThat(statistics.getPrepareStatementCount())
+                .as("user, locked item, overlap check, booking and outbox inserts, item summary refresh "
+                        + "and at most one id block allocation per table")
+                .isBetween(6L, 8L);
+    }
+
+    @Test
+    void shouldInsertBatchOfBookingsInOneJdbcBatch() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<CreateBookingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(CreateBookingRequest.builder()
+                    .itemId(itemResponse.getId())
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .build());
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        bookingService.createBookings(CreateBookingBatchRequest.builder().bookings(requests).build(), userResponse.getId());
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).as("bookings and their outbox events").isEqualTo(40);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("user, locked items, overlap check, one batched insert per table, item summary refresh "
+                        + "and at most one id block allocation per table")
+                .isBetween(6L, 8L);
+    }
+
+    @Test
+    void shouldMaintainItemBookingSummaryOnBookingWrites() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingResponse first = bookingService.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(start.plusDays(2))
+                .end(start.plusDays(3))
+                .build(), userResponse.getId());
+        BookingResponse second = bookingService.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(start)
+                .end(start.plusHours(1))
+                .build(), userResponse.getId());
+        bookingService.setApproved(first.getId(), true, ownerResponse.getId());
+        bookingService.setApprovedBatch(
+                ApproveBookingBatchRequest.builder().bookingIds(List.of(second.getId())).build(), true, ownerResponse.getId());
+        entityManager.clear();
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemResponse.getId()).orElseThrow();
+
+        assertThat(summary.getLastStart()).isNull();
+        assertThat(summary.getNextStart()).isEqualTo(start);
+    }
+
+    @Test
+    void shouldMoveStartedNextBookingToLastOnScheduledRefresh() {
+        LocalDateTime start = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        Booking booking = new Booking();
+        booking.setItem(entityManager.getReference(Item.class, itemResponse.getId()));
+        booking.setBooker(entityManager.getReference(User.class, userResponse.getId()));
+        booking.setStartDate(start);
+        booking.setEndDate(start.plusHours(2));
+        booking.setStatus(Status.APPROVED);
+        bookingRepository.save(booking);
+        itemBookingSummaryRepository.refresh(List.of(itemResponse.getId()), start.minusDays(1));
+        entityManager.clear();
+
+        itemBookingSummaryRefresher.refreshStartedBookings();
+        entityManager.clear();
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemResponse.getId()).orElseThrow();
+        assertThat(summary.getLastStart()).isEqualTo(start);
+        assertThat(summary.getNextStart()).isNull();
+    }
+
+    @Test
+    void shouldReadStartedNextBookingAsLastAndFollowingAsNextBeforeRefresh() {
+        LocalDateTime start = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        for (LocalDateTime bookingStart : List.of(start, start.plusDays(1))) {
+            Booking booking = new Booking();
+            booking.setItem(entityManager.getReference(Item.class, itemResponse.getId()));
+            booking.setBooker(entityManager.getReference(User.class, userResponse.getId()));
+            booking.setStartDate(bookingStart);
+            booking.setEndDate(bookingStart.plusHours(2));
+            booking.setStatus(Status.APPROVED);
+            bookingRepository.save(booking);
+        }
+        itemBookingSummaryRepository.refresh(List.of(itemResponse.getId()), start.minusDays(1));
+        entityManager.clear();
+
+        List<ItemBookingDates> dates = itemBookingSummaryRepository.findBookingDatesByItemIds(
+                List.of(itemResponse.getId()), LocalDateTime.now());
+
+        assertThat(dates).hasSize(1);
+        assertThat(dates.getFirst().getLastBooking()).isEqualTo(start);
+        assertThat(dates.getFirst().getNextBooking()).isEqualTo(start.plusDays(1));
+    }
+}
@@ -9,18 +9,26 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.booking.dto.ApproveBookingBatchRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.CreateBookingBatchRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 import ru.practicum.shareit.booking.service.impl.BookingServiceImpl;
 import ru.practicum.shareit.exception.exceptions.AuthorizationException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
 import ru.practicum.shareit.exception.exceptions.UnavailableItemBookingException;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.OutboxPublisher;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserResponse;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -31,6 +39,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -41,11 +50,23 @@ class BookingServiceImplTest {
     private BookingRepository bookingRepository;
 
     @Mock
-    private ItemService itemService;
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Mock
+    private CompletedBookingLookup completedBookingLookup;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private ItemRepository itemRepository;
 
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserRepository userRepository;
+
     @Spy
     private BookingMapper bookingMapper = Mappers.getMapper(BookingMapper.class);
 
@@ -119,8 +140,11 @@ class BookingServiceImplTest {
 
     @Test
     void shouldCreateBooking() {
-        when(userService.getUser(anyLong())).thenReturn(userResponse);
-        when(itemService.findItem(anyLong())).thenReturn(itemResponse);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findLockedById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsByItem_IdAndStatusInAndStartDateBeforeAndEndDateAfter(
+                anyLong(), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class))
+        ).thenReturn(false);
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         BookingResponse actualResponse = bookingService.createBooking(createBookingRequest, 1L);
@@ -130,60 +154,102 @@ class BookingServiceImplTest {
                 .ignoringFields("start", "end")
                 .isEqualTo(bookingResponse);
 
-        verify(userService, times(2)).getUser(1L);
-        verify(itemService, times(1)).findItem(1L);
+        verify(userRepository, times(1)).findById(1L);
+        verify(itemRepository, times(1)).findLockedById(1L);
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(itemBookingSummaryRepository, times(1)).refresh(eq(List.of(1L)), any(LocalDateTime.class));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void shouldCreateBookingsInBatchAndReportRejectedOnes() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findLockedByIdInOrderByIdAsc(anyCollection())).thenReturn(List.of(item));
+        when(bookingRepository.findByItem_IdInAndStatusInAndStartDateBeforeAndEndDateAfter(
+                anyCollection(), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class))
+        ).thenReturn(List.of());
+        CreateBookingRequest missingItemRequest = CreateBookingRequest.builder()
+                .itemId(2L)
+                .start(createBookingRequest.getStart())
+                .end(createBookingRequest.getEnd())
+                .build();
+        CreateBookingBatchRequest batchRequest = CreateBookingBatchRequest.builder()
+                .bookings(List.of(createBookingRequest, createBookingRequest, missingItemRequest))
+                .build();
+
+        List<BookingBatchResult> results = bookingService.createBookings(batchRequest, 1L);
+
+        Assertions.assertThat(results).extracting(BookingBatchResult::getItemId).containsExactly(1L, 1L, 2L);
+        Assertions.assertThat(results.get(0).getError()).isNull();
+        Assertions.assertThat(results.get(0).getBooking().getStatus()).isEqualTo(Status.WAITING);
+        Assertions.assertThat(results.get(1).getBooking()).isNull();
+        Assertions.assertThat(results.get(1).getError()).isEqualTo("Item 1 is already booked for this period");
+        Assertions.assertThat(results.get(2).getBooking()).isNull();
+        Assertions.assertThat(results.get(2).getError()).isEqualTo("Item with id 2 not found");
+
+        verify(itemRepository, times(1)).findLockedByIdInOrderByIdAsc(List.of(1L, 2L));
+        verify(bookingRepository, times(1)).saveAll(argThat(bookings -> ((Collection<Booking>) bookings).size() == 1));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void shouldThrowUnavailableItemBookingExceptionWhenItemAlreadyBooked() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findLockedById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsByItem_IdAndStatusInAndStartDateBeforeAndEndDateAfter(
+                anyLong(), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class))
+        ).thenReturn(true);
+
+        assertThatThrownBy(() -> bookingService.createBooking(createBookingRequest, 1L))
+                .isInstanceOf(UnavailableItemBookingException.class);
+
+        verify(itemRepository, times(1)).findLockedById(1L);
+        verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldThrowNotFoundExceptionWhenUserNotFoundForCreateBooking() {
-        when(userService.getUser(anyLong())).thenThrow(new NotFoundException(""));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.createBooking(createBookingRequest, 1L))
                 .isInstanceOf(NotFoundException.class);
 
-        verify(userService, times(1)).getUser(1L);
-        verify(itemService, never()).findItem(anyLong());
+        verify(userRepository, times(1)).findById(1L);
+        verify(itemRepository, never()).findLockedById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldThrowNotFoundExceptionWhenItemNotFoundForCreateBooking() {
-        when(userService.getUser(anyLong())).thenReturn(userResponse);
-        when(itemService.findItem(anyLong())).thenThrow(new NotFoundException(""));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findLockedById(anyLong())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.createBooking(createBookingRequest, 1L))
                 .isInstanceOf(NotFoundException.class);
 
-        verify(userService, times(1)).getUser(1L);
-        verify(itemService, times(1)).findItem(1L);
+        verify(userRepository, times(1)).findById(1L);
+        verify(itemRepository, times(1)).findLockedById(1L);
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldThrowUnavailableItemBookingExceptionWhenItemNotAvailable() {
-        itemResponse = ItemResponse.builder()
-                .id(1L)
-                .name("item name test")
-                .description("item description test")
-                .available(false)
-                .ownerId(1L)
-                .build();
+        item.setAvailable(false);
 
-        when(userService.getUser(anyLong())).thenReturn(userResponse);
-        when(itemService.findItem(anyLong())).thenReturn(itemResponse);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findLockedById(anyLong())).thenReturn(Optional.of(item));
 
         assertThatThrownBy(() -> bookingService.createBooking(createBookingRequest, 1L))
                 .isInstanceOf(UnavailableItemBookingException.class);
 
-        verify(userService, times(2)).getUser(1L);
-        verify(itemService, times(1)).findItem(1L);
+        verify(userRepository, times(1)).findById(1L);
+        verify(itemRepository, times(1)).findLockedById(1L);
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldSetApproved() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         BookingResponse expectedResponse = BookingResponse.builder()
@@ -202,13 +268,14 @@ class BookingServiceImplTest {
                 .ignoringFields("start", "end")
                 .isEqualTo(expectedResponse);
 
-        verify(bookingRepository, times(1)).findById(1L);
+        verify(bookingRepository, times(1)).findWithItemAndBookerById(1L);
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(itemBookingSummaryRepository, times(1)).refresh(eq(List.of(1L)), any(LocalDateTime.class));
     }
 
     @Test
     void shouldSetRejected() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         BookingResponse expectedResponse = BookingResponse.builder()
@@ -227,24 +294,66 @@ class BookingServiceImplTest {
                 .ignoringFields("start", "end")
                 .isEqualTo(expectedResponse);
 
-        verify(bookingRepository, times(1)).findById(1L);
+        verify(bookingRepository, times(1)).findWithItemAndBookerById(1L);
         verify(bookingRepository, times(1)).save(any(Booking.class));
     }
 
+    @Test
+    void shouldEvictCompletedBookingWhenRejectingApprovedBooking() {
+        booking.setStatus(Status.APPROVED);
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        bookingService.setApproved(1L, false, 1L);
+
+        verify(completedBookingLookup, times(1)).evict(item.getId(), user.getId());
+    }
+
     @Test
     void shouldThrowAuthorizationExceptionWhenUserIsNotOwnerForSetApproved() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
 
         assertThatThrownBy(() -> bookingService.setApproved(1L, true, 2L))
                 .isInstanceOf(AuthorizationException.class);
 
-        verify(bookingRepository, times(1)).findById(1L);
+        verify(bookingRepository, times(1)).findWithItemAndBookerById(1L);
         verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(itemBookingSummaryRepository);
+    }
+
+    @Test
+    void shouldSetApprovedBatchOnlyForWaitingBookings() {
+        booking.setStatus(Status.APPROVED);
+        when(bookingRepository.findOwnershipByIdIn(anyCollection()))
+                .thenReturn(List.of(ownership(1L, 1L, Status.WAITING), ownership(2L, 1L, Status.REJECTED)));
+        when(bookingRepository.findWithItemAndBookerByIdInAndStatusOrderByIdAsc(List.of(1L), Status.APPROVED))
+                .thenReturn(List.of(booking));
+
+        List<BookingResponse> actualResponse = bookingService.setApprovedBatch(
+                ApproveBookingBatchRequest.builder().bookingIds(List.of(1L, 2L)).build(), true, 1L);
+
+        Assertions.assertThat(actualResponse)
+                .extracting(BookingResponse::getId, BookingResponse::getStatus)
+                .containsExactly(Assertions.tuple(1L, Status.APPROVED));
+        verify(bookingRepository, times(1)).updateStatusByIdInAndStatus(List.of(1L), Status.WAITING, Status.APPROVED);
+        verify(itemBookingSummaryRepository, times(1)).refresh(eq(List.of(1L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldThrowAuthorizationExceptionWhenUserIsNotOwnerForSetApprovedBatch() {
+        when(bookingRepository.findOwnershipByIdIn(anyCollection()))
+                .thenReturn(List.of(ownership(1L, 1L, Status.WAITING)));
+
+        assertThatThrownBy(() -> bookingService.setApprovedBatch(
+                ApproveBookingBatchRequest.builder().bookingIds(List.of(1L)).build(), true, 2L))
+                .isInstanceOf(AuthorizationException.class);
+
+        verify(bookingRepository, never()).updateStatusByIdInAndStatus(anyCollection(), any(Status.class), any(Status.class));
     }
 
     @Test
     void shouldGetBooking() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
 
         BookingResponse actualResponse = bookingService.getBooking(1L, 1L);
 
@@ -253,52 +362,54 @@ class BookingServiceImplTest {
                 .ignoringFields("start", "end")
                 .isEqualTo(bookingResponse);
 
-        verify(bookingRepository, times(1)).findById(1L);
+        verify(bookingRepository, times(1)).findWithItemAndBookerById(1L);
     }
 
     @Test
     void shouldThrowAuthorizationExceptionWhenUserIsNotBookerOrOwnerForGetBooking() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
 
         assertThatThrownBy(() -> bookingService.getBooking(1L, 2L))
                 .isInstanceOf(AuthorizationException.class);
 
-        verify(bookingRepository, times(1)).findById(1L);
+        verify(bookingRepository, times(1)).findWithItemAndBookerById(1L);
     }
 
     @Test
     void shouldThrowNotFoundExceptionWhenBookingNotFoundForGetBooking() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.getBooking(1L, 1L))
                 .isInstanceOf(NotFoundException.class);
 
-        verify(bookingRepository, times(1)).findById(1L);
+        verify(bookingRepository, times(1)).findWithItemAndBookerById(1L);
     }
 
     @Test
     void shouldGetBookerBookingsAll() {
-        when(bookingRepository.findAllByBooker_IdOrderByStartDateDesc(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findByBooker_IdOrderByStartDateDescIdDesc(anyLong(), any(ScrollPosition.class), any(Limit.class))).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.ALL);
+        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.ALL, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
                 .usingRecursiveFieldByFieldElementComparatorIgnoringFields("start", "end")
                 .containsExactlyInAnyOrder(bookingResponse);
 
-        verify(bookingRepository, times(1)).findAllByBooker_IdOrderByStartDateDesc(1L);
+        verify(bookingRepository, times(1)).findByBooker_IdOrderByStartDateDescIdDesc(eq(1L), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetBookerBookingsCurrent() {
-        when(bookingRepository.findByBooker_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDesc(
+        when(bookingRepository.findByBooker_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDescIdDesc(
                 anyLong(),
                 any(LocalDateTime.class),
-                any(LocalDateTime.class))
-        ).thenReturn(List.of(booking));
+                any(LocalDateTime.class),
+                any(ScrollPosition.class),
+                any(Limit.class))
+        ).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.CURRENT);
+        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.CURRENT, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
@@ -306,18 +417,21 @@ class BookingServiceImplTest {
                 .containsExactlyInAnyOrder(bookingResponse);
 
         verify(bookingRepository, times(1))
-                .findByBooker_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDesc(
-                        eq(1L), any(LocalDateTime.class), any(LocalDateTime.class));
+                .findByBooker_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDescIdDesc(
+                        eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetBookerBookingsPast() {
-        when(bookingRepository.findByBooker_IdAndEndDateBeforeOrderByStartDateDesc(
+        when(bookingRepository.findByBooker_IdAndStartDateBeforeAndEndDateBeforeOrderByStartDateDescIdDesc(
                 anyLong(),
-                any(LocalDateTime.class))
-        ).thenReturn(List.of(booking));
+                any(LocalDateTime.class),
+                any(LocalDateTime.class),
+                any(ScrollPosition.class),
+                any(Limit.class))
+        ).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.PAST);
+        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.PAST, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
@@ -325,17 +439,19 @@ class BookingServiceImplTest {
                 .containsExactlyInAnyOrder(bookingResponse);
 
         verify(bookingRepository, times(1))
-                .findByBooker_IdAndEndDateBeforeOrderByStartDateDesc(eq(1L), any(LocalDateTime.class));
+                .findByBooker_IdAndStartDateBeforeAndEndDateBeforeOrderByStartDateDescIdDesc(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetBookerBookingsFuture() {
-        when(bookingRepository.findByBooker_IdAndStartDateAfterOrderByStartDateDesc(
+        when(bookingRepository.findByBooker_IdAndStartDateAfterOrderByStartDateDescIdDesc(
                 anyLong(),
-                any(LocalDateTime.class))
-        ).thenReturn(List.of(booking));
+                any(LocalDateTime.class),
+                any(ScrollPosition.class),
+                any(Limit.class))
+        ).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.FUTURE);
+        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.FUTURE, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
@@ -343,60 +459,62 @@ class BookingServiceImplTest {
                 .containsExactlyInAnyOrder(bookingResponse);
 
         verify(bookingRepository, times(1))
-                .findByBooker_IdAndStartDateAfterOrderByStartDateDesc(eq(1L), any(LocalDateTime.class));
+                .findByBooker_IdAndStartDateAfterOrderByStartDateDescIdDesc(eq(1L), any(LocalDateTime.class), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetBookerBookingsWaiting() {
-        when(bookingRepository.findAllByBooker_IdAndStatusOrderByStartDateDesc(anyLong(), eq(Status.WAITING))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBooker_IdAndStatusOrderByStartDateDescIdDesc(anyLong(), eq(Status.WAITING), any(ScrollPosition.class), any(Limit.class))).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.WAITING);
+        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.WAITING, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
                 .usingRecursiveFieldByFieldElementComparatorIgnoringFields("start", "end")
                 .containsExactlyInAnyOrder(bookingResponse);
 
-        verify(bookingRepository, times(1)).findAllByBooker_IdAndStatusOrderByStartDateDesc(1L, Status.WAITING);
+        verify(bookingRepository, times(1)).findByBooker_IdAndStatusOrderByStartDateDescIdDesc(eq(1L), eq(Status.WAITING), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetBookerBookingsRejected() {
-        when(bookingRepository.findAllByBooker_IdAndStatusOrderByStartDateDesc(anyLong(), eq(Status.REJECTED))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBooker_IdAndStatusOrderByStartDateDescIdDesc(anyLong(), eq(Status.REJECTED), any(ScrollPosition.class), any(Limit.class))).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.REJECTED);
+        Collection<BookingResponse> actualResponses = bookingService.getBookerBookings(1L, State.REJECTED, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
                 .usingRecursiveFieldByFieldElementComparatorIgnoringFields("start", "end")
                 .containsExactlyInAnyOrder(bookingResponse);
 
-        verify(bookingRepository, times(1)).findAllByBooker_IdAndStatusOrderByStartDateDesc(1L, Status.REJECTED);
+        verify(bookingRepository, times(1)).findByBooker_IdAndStatusOrderByStartDateDescIdDesc(eq(1L), eq(Status.REJECTED), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetOwnerBookingsAll() {
-        when(bookingRepository.findAllByItem_Owner_IdOrderByStartDateDesc(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findByItem_Owner_IdOrderByStartDateDescIdDesc(anyLong(), any(ScrollPosition.class), any(Limit.class))).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.ALL);
+        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.ALL, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
                 .usingRecursiveFieldByFieldElementComparatorIgnoringFields("start", "end")
                 .containsExactlyInAnyOrder(bookingResponse);
 
-        verify(bookingRepository, times(1)).findAllByItem_Owner_IdOrderByStartDateDesc(1L);
+        verify(bookingRepository, times(1)).findByItem_Owner_IdOrderByStartDateDescIdDesc(eq(1L), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetOwnerBookingsCurrent() {
-        when(bookingRepository.findByItem_Owner_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDesc(
+        when(bookingRepository.findByItem_Owner_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDescIdDesc(
                 anyLong(),
                 any(LocalDateTime.class),
-                any(LocalDateTime.class))
-        ).thenReturn(List.of(booking));
+                any(LocalDateTime.class),
+                any(ScrollPosition.class),
+                any(Limit.class))
+        ).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.CURRENT);
+        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.CURRENT, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
@@ -404,21 +522,26 @@ class BookingServiceImplTest {
                 .containsExactlyInAnyOrder(bookingResponse);
 
         verify(bookingRepository, times(1))
-                .findByItem_Owner_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDesc(
+                .findByItem_Owner_IdAndStartDateBeforeAndEndDateAfterOrderByStartDateDescIdDesc(
                         eq(1L),
                         any(LocalDateTime.class),
-                        any(LocalDateTime.class)
+                        any(LocalDateTime.class),
+                        any(ScrollPosition.class),
+                        any(Limit.class)
                 );
     }
 
     @Test
     void shouldGetOwnerBookingsPast() {
-        when(bookingRepository.findByItem_Owner_IdAndEndDateBeforeOrderByStartDateDesc(
+        when(bookingRepository.findByItem_Owner_IdAndStartDateBeforeAndEndDateBeforeOrderByStartDateDescIdDesc(
                 anyLong(),
-                any(LocalDateTime.class))
-        ).thenReturn(List.of(booking));
+                any(LocalDateTime.class),
+                any(LocalDateTime.class),
+                any(ScrollPosition.class),
+                any(Limit.class))
+        ).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.PAST);
+        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.PAST, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
@@ -426,17 +549,19 @@ class BookingServiceImplTest {
                 .containsExactlyInAnyOrder(bookingResponse);
 
         verify(bookingRepository, times(1))
-                .findByItem_Owner_IdAndEndDateBeforeOrderByStartDateDesc(eq(1L), any(LocalDateTime.class));
+                .findByItem_Owner_IdAndStartDateBeforeAndEndDateBeforeOrderByStartDateDescIdDesc(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetOwnerBookingsFuture() {
-        when(bookingRepository.findByItem_Owner_IdAndStartDateAfterOrderByStartDateDesc(
+        when(bookingRepository.findByItem_Owner_IdAndStartDateAfterOrderByStartDateDescIdDesc(
                 anyLong(),
-                any(LocalDateTime.class))
-        ).thenReturn(List.of(booking));
+                any(LocalDateTime.class),
+                any(ScrollPosition.class),
+                any(Limit.class))
+        ).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.FUTURE);
+        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.FUTURE, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
@@ -444,41 +569,41 @@ class BookingServiceImplTest {
                 .containsExactlyInAnyOrder(bookingResponse);
 
         verify(bookingRepository, times(1))
-                .findByItem_Owner_IdAndStartDateAfterOrderByStartDateDesc(eq(1L), any(LocalDateTime.class));
+                .findByItem_Owner_IdAndStartDateAfterOrderByStartDateDescIdDesc(eq(1L), any(LocalDateTime.class), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetOwnerBookingsWaiting() {
-        when(bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDateDesc(anyLong(), eq(Status.WAITING))).thenReturn(List.of(booking));
+        when(bookingRepository.findByItem_Owner_IdAndStatusOrderByStartDateDescIdDesc(anyLong(), eq(Status.WAITING), any(ScrollPosition.class), any(Limit.class))).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.WAITING);
+        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.WAITING, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
                 .usingRecursiveFieldByFieldElementComparatorIgnoringFields("start", "end")
                 .containsExactlyInAnyOrder(bookingResponse);
 
-        verify(bookingRepository, times(1)).findAllByItem_Owner_IdAndStatusOrderByStartDateDesc(1L, Status.WAITING);
+        verify(bookingRepository, times(1)).findByItem_Owner_IdAndStatusOrderByStartDateDescIdDesc(eq(1L), eq(Status.WAITING), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldGetOwnerBookingsRejected() {
-        when(bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDateDesc(anyLong(), eq(Status.REJECTED))).thenReturn(List.of(booking));
+        when(bookingRepository.findByItem_Owner_IdAndStatusOrderByStartDateDescIdDesc(anyLong(), eq(Status.REJECTED), any(ScrollPosition.class), any(Limit.class))).thenReturn(Window.from(List.of(booking), ScrollPosition::offset));
 
-        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.REJECTED);
+        Collection<BookingResponse> actualResponses = bookingService.getOwnerBookings(1L, State.REJECTED, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
                 .usingRecursiveFieldByFieldElementComparatorIgnoringFields("start", "end")
                 .containsExactlyInAnyOrder(bookingResponse);
 
-        verify(bookingRepository, times(1)).findAllByItem_Owner_IdAndStatusOrderByStartDateDesc(1L, Status.REJECTED);
+        verify(bookingRepository, times(1)).findByItem_Owner_IdAndStatusOrderByStartDateDescIdDesc(eq(1L), eq(Status.REJECTED), any(ScrollPosition.class), any(Limit.class));
     }
 
     @Test
     void shouldThrowValidationExceptionWhenStartAfterEnd() {
-        when(itemService.findItem(anyLong())).thenReturn(itemResponse);
-        when(userService.getUser(anyLong())).thenReturn(userResponse);
+        when(itemRepository.findLockedById(anyLong())).thenReturn(Optional.of(item));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
 
         CreateBookingRequest createBookingRequest = CreateBookingRequest.builder()
                 .itemId(1L)
@@ -492,8 +617,8 @@ class BookingServiceImplTest {
 
     @Test
     void shouldThrowValidationExceptionWhenStartEqualEnd() {
-        when(itemService.findItem(anyLong())).thenReturn(itemResponse);
-        when(userService.getUser(anyLong())).thenReturn(userResponse);
+        when(itemRepository.findLockedById(anyLong())).thenReturn(Optional.of(item));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
 
         LocalDateTime now = LocalDateTime.now();
 
@@ -506,4 +631,23 @@ class BookingServiceImplTest {
         assertThatThrownBy(() -> bookingService.createBooking(createBookingRequest, 1L))
                 .isInstanceOf(ValidationException.class);
     }
-}
\ No newline at end of file
+
+    private static BookingOwnership ownership(Long id, Long ownerId, Status status) {
+        return new BookingOwnership() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Status getStatus() {
+                return status;
+            }
+        };
+    }
+}
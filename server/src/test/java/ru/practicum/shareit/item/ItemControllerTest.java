@@ -6,6 +6,9 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.*;
@@ -15,8 +18,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ItemController.class)
 public class ItemControllerTest {
@@ -74,15 +76,17 @@ public class ItemControllerTest {
                 .description("updated item description test")
                 .available(false)
                 .ownerId(1L)
+                .version(2L)
                 .build();
 
-        Mockito.when(itemService.updateItem(Mockito.eq(1L), Mockito.any(UpdateItemRequest.class), Mockito.eq(1L))).thenReturn(itemResponse);
+        Mockito.when(itemService.updateItem(Mockito.eq(1L), Mockito.any(UpdateItemRequest.class), Mockito.eq(1L), Mockito.isNull())).thenReturn(itemResponse);
 
         mockMvc.perform(patch("/items/1")
                         .header("X-Sharer-User-Id", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updateItemRequest)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.name").value("updated item name test"))
                 .andExpect(jsonPath("$.description").value("updated item description test"))
@@ -100,11 +104,14 @@ public class ItemControllerTest {
                 .ownerId(1L)
                 .build();
 
+        Mockito.when(itemService.getItemTag(1L)).thenReturn("\"1-0-0\"");
         Mockito.when(itemService.findItemWithComments(1L)).thenReturn(itemResponse);
 
         mockMvc.perform(get("/items/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0-0-0\"")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0-0\""))
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.name").value("item name test"))
                 .andExpect(jsonPath("$.description").value("item description test"))
@@ -112,6 +119,19 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.ownerId").value(1L));
     }
 
+    @Test
+    void testGetItemNotModified() throws Exception {
+        Mockito.when(itemService.getItemTag(1L)).thenReturn("\"1-0-0\"");
+
+        mockMvc.perform(get("/items/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0-0\""))
+                .andExpect(content().string(""));
+
+        Mockito.verify(itemService, Mockito.never()).findItemWithComments(Mockito.anyLong());
+    }
+
     @Test
     void testGetAllUserItems() throws Exception {
         ItemResponseBookingComments itemResponse = ItemResponseBookingComments.builder()
@@ -122,12 +142,15 @@ public class ItemControllerTest {
                 .ownerId(1L)
                 .build();
 
-        Mockito.when(itemService.getAllUserItems(1L)).thenReturn(List.of(itemResponse));
+        Mockito.when(itemService.getUserItemsTag(1L, null, 20)).thenReturn("\"1-0-0-0-0\"");
+        Mockito.when(itemService.getAllUserItems(Mockito.eq(1L), Mockito.isNull(), Mockito.eq(20)))
+                .thenReturn(Window.from(List.of(itemResponse), ScrollPosition::offset));
 
         mockMvc.perform(get("/items")
                         .header("X-Sharer-User-Id", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0-0-0-0\""))
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].name").value("item name test"))
                 .andExpect(jsonPath("$[0].description").value("item description test"))
@@ -135,6 +158,26 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].ownerId").value(1L));
     }
 
+    @Test
+    void testGetItemComments() throws Exception {
+        ItemCommentResponse commentResponse = ItemCommentResponse.builder()
+                .id(1L)
+                .text("comment text test")
+                .authorName("author name test")
+                .created(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+
+        Mockito.when(itemService.getItemComments(Mockito.eq(1L), Mockito.isNull(), Mockito.eq(20)))
+                .thenReturn(Window.from(List.of(commentResponse), ScrollPosition::offset));
+
+        mockMvc.perform(get("/items/1/comments")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].text").value("comment text test"))
+                .andExpect(jsonPath("$[0].authorName").value("author name test"));
+    }
+
     @Test
     void testSearchItems() throws Exception {
         ItemResponse itemResponse = ItemResponse.builder()
@@ -145,7 +188,7 @@ public class ItemControllerTest {
                 .ownerId(1L)
                 .build();
 
-        Mockito.when(itemService.searchItems("test")).thenReturn(List.of(itemResponse));
+        Mockito.when(itemService.searchItems("test", 20)).thenReturn(List.of(itemResponse));
 
         mockMvc.perform(get("/items/search")
                         .param("text", "test")
@@ -1,25 +1,45 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.EntityManager;
 import jakarta.validation.ValidationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.CompletedBookingLookup;
+import ru.practicum.shareit.booking.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingResponse;
 import ru.practicum.shareit.booking.dto.CreateBookingRequest;
 import ru.practicum.shareit.booking.service.impl.BookingServiceImpl;
 import ru.practicum.shareit.exception.exceptions.AuthorizationException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
+import ru.practicum.shareit.exception.exceptions.VersionConflictException;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.impl.ItemServiceImpl;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.CreateUserRequest;
+import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserResponse;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,7 +52,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
         "spring.datasource.driver-class-name=org.h2.Driver",
         "spring.datasource.username=shareit",
         "spring.datasource.password=shareit",
-        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "shareit.outbox.poll-interval=PT1H"
 })
 class ItemServiceImplIntegrationTest {
 
@@ -45,9 +67,30 @@ class ItemServiceImplIntegrationTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private BookingServiceImpl bookingServiceImpl;
 
+    @Autowired
+    private CompletedBookingLookup completedBookingLookup;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private UserResponse userResponse;
     private ItemResponse itemResponse;
 
@@ -108,7 +151,7 @@ class ItemServiceImplIntegrationTest {
                 .available(false)
                 .build();
 
-        ItemResponse updatedItemResponse = itemService.updateItem(itemResponse.getId(), updateItemRequest, userResponse.getId());
+        ItemResponse updatedItemResponse = itemService.updateItem(itemResponse.getId(), updateItemRequest, userResponse.getId(), null);
 
         assertThat(updatedItemResponse.getId()).isEqualTo(itemResponse.getId());
         assertThat(updatedItemResponse.getName()).isEqualTo("updated item");
@@ -116,6 +159,65 @@ class ItemServiceImplIntegrationTest {
         assertThat(updatedItemResponse.getAvailable()).isFalse();
     }
 
+    @Test
+    void shouldReturnUnpatchedFieldsAndNewVersionAfterPartialUpdate() {
+        ItemResponse updatedItemResponse = itemService.updateItem(itemResponse.getId(),
+                UpdateItemRequest.builder().description("patched").build(), userResponse.getId(), null);
+
+        assertThat(updatedItemResponse.getName()).isEqualTo("test item");
+        assertThat(updatedItemResponse.getDescription()).isEqualTo("patched");
+        assertThat(updatedItemResponse.getAvailable()).isTrue();
+        assertThat(updatedItemResponse.getOwnerId()).isEqualTo(userResponse.getId());
+        assertThat(updatedItemResponse.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldUpdateItemWithSingleStatement() {
+        userService.getUser(userResponse.getId());
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        itemService.updateItem(itemResponse.getId(), UpdateItemRequest.builder().description("patched").build(), userResponse.getId(), 0L);
+        entityManager.flush();
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("item update, item read-back, outbox insert and at most one id block allocation")
+                .isBetween(3L, 4L);
+        Item savedItem = itemRepository.findById(itemResponse.getId()).orElseThrow();
+        assertThat(savedItem.getName()).isEqualTo("test item");
+        assertThat(savedItem.getDescription()).isEqualTo("patched");
+        assertThat(savedItem.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldThrowVersionConflictExceptionWhenUpdatingItemWithStaleVersion() {
+        itemService.updateItem(itemResponse.getId(), UpdateItemRequest.builder().name("first").build(), userResponse.getId(), 0L);
+
+        assertThatThrownBy(() -> itemService.updateItem(itemResponse.getId(),
+                UpdateItemRequest.builder().name("second").build(), userResponse.getId(), 0L))
+                .isInstanceOf(VersionConflictException.class);
+        assertThat(itemRepository.findById(itemResponse.getId()).orElseThrow().getName()).isEqualTo("first");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldEvictCachedItemOnUpdate() {
+        try {
+            itemService.findItemWithComments(itemResponse.getId());
+            assertThat(cacheManager.getCache("items").get(itemResponse.getId())).isNotNull();
+
+            itemService.updateItem(itemResponse.getId(), UpdateItemRequest.builder().name("updated item").build(), userResponse.getId(), null);
+
+            assertThat(cacheManager.getCache("items").get(itemResponse.getId())).isNull();
+            assertThat(itemService.findItemWithComments(itemResponse.getId()).getName()).isEqualTo("updated item");
+        } finally {
+            itemRepository.deleteById(itemResponse.getId());
+            userRepository.deleteById(userResponse.getId());
+        }
+    }
+
     @Test
     void shouldThrowAuthorizationExceptionWhenUpdatingItemWithWrongOwner() {
         CreateUserRequest createUserRequest = CreateUserRequest.builder()
@@ -130,7 +232,7 @@ class ItemServiceImplIntegrationTest {
                 .available(false)
                 .build();
 
-        assertThatThrownBy(() -> itemService.updateItem(itemResponse.getId(), updateItemRequest, userResponse.getId()))
+        assertThatThrownBy(() -> itemService.updateItem(itemResponse.getId(), updateItemRequest, userResponse.getId(), null))
                 .isInstanceOf(AuthorizationException.class);
     }
 
@@ -150,9 +252,85 @@ class ItemServiceImplIntegrationTest {
                 .isInstanceOf(NotFoundException.class);
     }
 
+    @Test
+    void shouldChangeItemTagWhenItemOrCommentsChange() {
+        String createdTag = itemService.getItemTag(itemResponse.getId());
+        assertThat(itemService.getItemTag(itemResponse.getId())).isEqualTo(createdTag);
+
+        itemService.updateItem(itemResponse.getId(), UpdateItemRequest.builder().name("renamed").build(), userResponse.getId(), null);
+        String updatedTag = itemService.getItemTag(itemResponse.getId());
+        assertThat(updatedTag).isNotEqualTo(createdTag);
+
+        BookingResponse bookingResponse = bookingServiceImpl.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now())
+                .end(LocalDateTime.now())
+                .build(), userResponse.getId());
+        bookingServiceImpl.setApproved(bookingResponse.getId(), true, userResponse.getId());
+        itemService.addComment(CreateCommentRequest.builder().text("comment").build(), itemResponse.getId(), userResponse.getId());
+        assertThat(itemService.getItemTag(itemResponse.getId())).isNotEqualTo(updatedTag);
+    }
+
+    @Test
+    void shouldChangeItemTagsWhenCommentAuthorIsUpdated() {
+        BookingResponse bookingResponse = bookingServiceImpl.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now())
+                .end(LocalDateTime.now())
+                .build(), userResponse.getId());
+        bookingServiceImpl.setApproved(bookingResponse.getId(), true, userResponse.getId());
+        itemService.addComment(CreateCommentRequest.builder().text("comment").build(), itemResponse.getId(), userResponse.getId());
+        String itemTag = itemService.getItemTag(itemResponse.getId());
+        String userItemsTag = itemService.getUserItemsTag(userResponse.getId(), null, 20);
+
+        userService.updateUser(userResponse.getId(), UpdateUserRequest.builder().name("renamed author").build(), null);
+
+        assertThat(itemService.getItemTag(itemResponse.getId())).isNotEqualTo(itemTag);
+        assertThat(itemService.getUserItemsTag(userResponse.getId(), null, 20)).isNotEqualTo(userItemsTag);
+        assertThat(itemService.findItemWithComments(itemResponse.getId()).getComments())
+                .extracting(ItemCommentResponse::getAuthorName)
+                .containsExactly("renamed author");
+    }
+
+    @Test
+    void shouldThrowNotFoundExceptionWhenItemNotFoundForItemTag() {
+        assertThatThrownBy(() -> itemService.getItemTag(999L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void shouldChangeUserItemsTagWhenBookingIsAdded() {
+        String tag = itemService.getUserItemsTag(userResponse.getId(), null, 20);
+
+        saveBooking(LocalDateTime.now().plusDays(1));
+
+        assertThat(itemService.getUserItemsTag(userResponse.getId(), null, 20)).isNotEqualTo(tag);
+    }
+
+    @Test
+    void shouldTagEachUserItemsPageByItsOwnRows() {
+        ItemResponse secondItem = itemService.createItem(CreateItemRequest.builder()
+                .name("second item")
+                .description("item description")
+                .available(true)
+                .build(), userResponse.getId());
+        String firstPageTag = itemService.getUserItemsTag(userResponse.getId(), null, 1);
+        String nextCursor = KeysetCursor.toResponse(itemService.getAllUserItems(userResponse.getId(), null, 1))
+                .getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER);
+        String secondPageTag = itemService.getUserItemsTag(userResponse.getId(), nextCursor, 1);
+
+        assertThat(secondPageTag).isNotEqualTo(firstPageTag);
+        assertThat(itemService.getUserItemsTag(userResponse.getId(), null, 2)).isNotEqualTo(firstPageTag);
+
+        itemService.updateItem(secondItem.getId(), UpdateItemRequest.builder().name("renamed").build(), userResponse.getId(), null);
+
+        assertThat(itemService.getUserItemsTag(userResponse.getId(), null, 1)).isEqualTo(firstPageTag);
+        assertThat(itemService.getUserItemsTag(userResponse.getId(), nextCursor, 1)).isNotEqualTo(secondPageTag);
+    }
+
     @Test
     void shouldFindAllUserItems() {
-        List<ItemResponseBookingComments> userItems = itemService.getAllUserItems(userResponse.getId());
+        List<ItemResponseBookingComments> userItems = itemService.getAllUserItems(userResponse.getId(), null, 20).getContent();
 
         assertThat(userItems).hasSize(1);
         assertThat(userItems.get(0).getName()).isEqualTo("test item");
@@ -160,9 +338,75 @@ class ItemServiceImplIntegrationTest {
         assertThat(userItems.get(0).getAvailable()).isTrue();
     }
 
+    @Test
+    void shouldFindNextAndLastBookingOfUserItems() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        saveBooking(now.minusDays(10));
+        saveBooking(now.minusDays(2));
+        saveBooking(now.plusDays(3));
+        saveBooking(now.plusDays(7));
+
+        List<ItemResponseBookingComments> userItems = itemService.getAllUserItems(userResponse.getId(), null, 20).getContent();
+
+        assertThat(userItems).hasSize(1);
+        assertThat(userItems.get(0).getLastBooking()).isEqualTo(now.minusDays(2));
+        assertThat(userItems.get(0).getNextBooking()).isEqualTo(now.plusDays(3));
+    }
+
+    @Test
+    void shouldPageUserItemsByCursor() {
+        List<Long> createdIds = new ArrayList<>(List.of(itemResponse.getId()));
+        for (int i = 0; i < 4; i++) {
+            createdIds.add(itemService.createItem(CreateItemRequest.builder()
+                    .name("item " + i)
+                    .description("item description")
+                    .available(true)
+                    .build(), userResponse.getId()).getId());
+        }
+
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            Window<ItemResponseBookingComments> page = itemService.getAllUserItems(userResponse.getId(), cursor, 2);
+            page.forEach(item -> pagedIds.add(item.getId()));
+            cursor = KeysetCursor.toResponse(page).getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertThat(pagedIds).containsExactlyElementsOf(createdIds);
+    }
+
+    @Test
+    void shouldListUserItemsWithoutLoadingBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= 50; i++) {
+            saveBooking(now.minusDays(i));
+            saveBooking(now.plusDays(i));
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        itemService.getAllUserItems(userResponse.getId(), null, 20);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    private void saveBooking(LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setItem(itemRepository.getReferenceById(itemResponse.getId()));
+        booking.setBooker(userRepository.getReferenceById(userResponse.getId()));
+        booking.setStartDate(start);
+        booking.setEndDate(start.plusHours(1));
+        booking.setStatus(Status.APPROVED);
+        bookingRepository.save(booking);
+        itemBookingSummaryRepository.refresh(List.of(itemResponse.getId()), LocalDateTime.now());
+    }
+
     @Test
     void shouldSearchItems() {
-        List<ItemResponse> foundItems = itemService.searchItems("test");
+        List<ItemResponse> foundItems = itemService.searchItems("test", 20);
 
         assertThat(foundItems).hasSize(1);
         assertThat(foundItems.get(0).getName()).isEqualTo("test item");
@@ -170,6 +414,21 @@ class ItemServiceImplIntegrationTest {
         assertThat(foundItems.get(0).getAvailable()).isTrue();
     }
 
+    @Test
+    void shouldRankPrefixMatchesFirstAndLimitSearchResults() {
+        for (String name : List.of("old drill", "drill", "drill press", "hammer")) {
+            itemService.createItem(CreateItemRequest.builder()
+                    .name(name)
+                    .description("tool")
+                    .available(true)
+                    .build(), userResponse.getId());
+        }
+
+        List<ItemResponse> foundItems = itemService.searchItems("drill", 2);
+
+        assertThat(foundItems).extracting(ItemResponse::getName).containsExactly("drill", "drill press");
+    }
+
     @Test
     void shouldAddComment() {
         CreateCommentRequest createCommentRequest = CreateCommentRequest.builder()
@@ -182,7 +441,8 @@ class ItemServiceImplIntegrationTest {
                 .end(LocalDateTime.now())
                 .build();
 
-        bookingServiceImpl.createBooking(createBookingRequest, userResponse.getId());
+        BookingResponse bookingResponse = bookingServiceImpl.createBooking(createBookingRequest, userResponse.getId());
+        bookingServiceImpl.setApproved(bookingResponse.getId(), true, userResponse.getId());
 
         MergeCommentResponse commentResponse = itemService.addComment(createCommentRequest, itemResponse.getId(), userResponse.getId());
 
@@ -200,4 +460,124 @@ class ItemServiceImplIntegrationTest {
         assertThatThrownBy(() -> itemService.addComment(createCommentRequest, itemResponse.getId(), userResponse.getId()))
                 .isInstanceOf(ValidationException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldThrowValidationExceptionWhenAddingCommentWithoutApprovedBooking() {
+        bookingServiceImpl.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now())
+                .end(LocalDateTime.now())
+                .build(), userResponse.getId());
+        CreateCommentRequest createCommentRequest = CreateCommentRequest.builder()
+                .text("test comment")
+                .build();
+
+        assertThatThrownBy(() -> itemService.addComment(createCommentRequest, itemResponse.getId(), userResponse.getId()))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldRefuseCommentAfterApprovalIsWithdrawn() {
+        BookingResponse bookingResponse = bookingServiceImpl.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now())
+                .end(LocalDateTime.now())
+                .build(), userResponse.getId());
+        bookingServiceImpl.setApproved(bookingResponse.getId(), true, userResponse.getId());
+        CreateCommentRequest createCommentRequest = CreateCommentRequest.builder()
+                .text("test comment")
+                .build();
+        itemService.addComment(createCommentRequest, itemResponse.getId(), userResponse.getId());
+
+        bookingServiceImpl.setApproved(bookingResponse.getId(), false, userResponse.getId());
+
+        assertThat(cacheManager.getCache("completedBookings").get(itemResponse.getId() + ":" + userResponse.getId())).isNull();
+        assertThatThrownBy(() -> itemService.addComment(createCommentRequest, itemResponse.getId(), userResponse.getId()))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldEvictCompletedBookingOnlyAfterRejectionCommits() {
+        String key = itemResponse.getId() + ":" + userResponse.getId();
+        BookingResponse bookingResponse = bookingServiceImpl.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now())
+                .end(LocalDateTime.now())
+                .build(), userResponse.getId());
+        try {
+            bookingServiceImpl.setApproved(bookingResponse.getId(), true, userResponse.getId());
+            assertThat(completedBookingLookup.hasCompletedBooking(itemResponse.getId(), userResponse.getId())).isTrue();
+            assertThat(cacheManager.getCache("completedBookings").get(key)).isNotNull();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                bookingServiceImpl.setApproved(bookingResponse.getId(), false, userResponse.getId());
+                assertThat(cacheManager.getCache("completedBookings").get(key)).isNotNull();
+            });
+
+            assertThat(cacheManager.getCache("completedBookings").get(key)).isNull();
+            assertThat(completedBookingLookup.hasCompletedBooking(itemResponse.getId(), userResponse.getId())).isFalse();
+        } finally {
+            bookingRepository.deleteById(bookingResponse.getId());
+            itemBookingSummaryRepository.deleteById(itemResponse.getId());
+            itemRepository.deleteById(itemResponse.getId());
+            userRepository.deleteById(userResponse.getId());
+        }
+    }
+
+    @Test
+    void shouldReturnOnlyLatestCommentsWithAuthorNames() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 12; i++) {
+            saveComment("comment " + i, now.minusHours(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemResponseComments item = itemService.findItemWithComments(itemResponse.getId());
+        List<ItemResponseBookingComments> userItems = itemService.getAllUserItems(userResponse.getId(), null, 20).getContent();
+
+        assertThat(item.getComments()).hasSize(10)
+                .allSatisfy(comment -> assertThat(comment.getAuthorName()).isEqualTo("test user"));
+        assertThat(item.getComments().get(0).getText()).isEqualTo("comment 0");
+        assertThat(item.getComments().get(9).getCreated()).isEqualTo(now.minusHours(9));
+        assertThat(userItems.get(0).getComments()).isEqualTo(item.getComments());
+    }
+
+    @Test
+    void shouldPageItemCommentsByCursor() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<String> expectedTexts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            saveComment("comment " + i, now.minusMinutes(i));
+            expectedTexts.add("comment " + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> pagedTexts = new ArrayList<>();
+        String cursor = null;
+        do {
+            Window<ItemCommentResponse> page = itemService.getItemComments(itemResponse.getId(), cursor, 2);
+            page.forEach(comment -> pagedTexts.add(comment.getText()));
+            cursor = KeysetCursor.toResponse(page).getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertThat(pagedTexts).containsExactlyElementsOf(expectedTexts);
+    }
+
+    @Test
+    void shouldThrowNotFoundExceptionWhenItemNotFoundForItemComments() {
+        assertThatThrownBy(() -> itemService.getItemComments(999L, null, 20))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private void saveComment(String text, LocalDateTime creationDate) {
+        Comment comment = new Comment();
+        comment.setText(text);
+        comment.setItem(itemRepository.getReferenceById(itemResponse.getId()));
+        comment.setAuthor(userRepository.getReferenceById(userResponse.getId()));
+        comment.setCreationDate(creationDate);
+        entityManager.persist(comment);
+    }
+}
@@ -8,15 +8,24 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import ru.practicum.shareit.booking.Booking;
-import ru.practicum.shareit.booking.BookingRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.CompletedBookingLookup;
+import ru.practicum.shareit.booking.ItemBookingSummaryRepository;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
+import ru.practicum.shareit.exception.exceptions.VersionConflictException;
 import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemCommentView;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.impl.ItemServiceImpl;
+import ru.practicum.shareit.outbox.OutboxPublisher;
 import ru.practicum.shareit.request.Request;
 import ru.practicum.shareit.request.RequestRepository;
 import ru.practicum.shareit.user.User;
@@ -57,11 +66,20 @@ class ItemServiceImplTest {
     private CommentRepository commentRepository;
 
     @Mock
-    private BookingRepository bookingRepository;
+    private CompletedBookingLookup completedBookingLookup;
+
+    @Mock
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
 
     @Mock
     private RequestRepository requestRepository;
 
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -131,6 +149,23 @@ class ItemServiceImplTest {
         verify(itemRepository, times(1)).save(any(Item.class));
     }
 
+    @Test
+    void shouldIndexCreatedItemOnlyAfterCommit() {
+        when(userService.getUser(anyLong())).thenReturn(userResponse);
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemService.createItem(createItemRequest, 1L);
+            verify(itemSearchEngine, never()).index(any(Item.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(itemSearchEngine, times(1)).index(item);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void shouldCreateItemWithRequest() {
         Request request = new Request();
@@ -193,17 +228,15 @@ class ItemServiceImplTest {
 
     @Test
     void shouldUpdateItem() {
-        when(userService.getUser(anyLong())).thenReturn(userResponse);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> {
-            Item savedItem = invocation.getArgument(0);
-            savedItem.setName(updateItemRequest.getName());
-            savedItem.setDescription(updateItemRequest.getDescription());
-            savedItem.setAvailable(updateItemRequest.getAvailable());
-            return savedItem;
-        });
+        when(itemRepository.updatePartially(1L, 1L, updateItemRequest.getName(), updateItemRequest.getDescription(),
+                updateItemRequest.getAvailable())).thenReturn(1);
+        item.setName("updated item name test");
+        item.setDescription("updated item description test");
+        item.setAvailable(false);
+        item.setVersion(1L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
 
-        ItemResponse actualResponse = itemService.updateItem(1L, updateItemRequest, 1L);
+        ItemResponse actualResponse = itemService.updateItem(1L, updateItemRequest, 1L, null);
 
         ItemResponse expectedResponse = ItemResponse.builder()
                 .id(1L)
@@ -212,26 +245,38 @@ class ItemServiceImplTest {
                 .available(false)
                 .ownerId(1L)
                 .requestId(null)
+                .version(1L)
                 .build();
 
         assertThat(actualResponse).isEqualTo(expectedResponse);
 
-        verify(itemRepository, times(1)).findById(1L);
-        verify(itemRepository, times(1)).save(any(Item.class));
+        verify(itemSearchEngine, times(1)).index(item);
+        verify(itemRepository, never()).save(any(Item.class));
+        verify(userService, never()).getUser(anyLong());
     }
 
     @Test
     void shouldThrowNotFoundExceptionWhenItemNotFoundForUpdateItem() {
-        when(userService.getUser(anyLong())).thenReturn(userResponse);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> itemService.updateItem(1L, updateItemRequest, 1L))
+        assertThatThrownBy(() -> itemService.updateItem(1L, updateItemRequest, 1L, null))
                 .isInstanceOf(NotFoundException.class);
 
         verify(itemRepository, times(1)).findById(1L);
         verify(itemRepository, never()).save(any(Item.class));
     }
 
+    @Test
+    void shouldThrowVersionConflictExceptionWhenUpdatingItemWithStaleVersion() {
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+
+        assertThatThrownBy(() -> itemService.updateItem(1L, updateItemRequest, 1L, 5L))
+                .isInstanceOf(VersionConflictException.class);
+
+        verify(itemRepository, times(1)).updatePartiallyIfVersion(1L, 1L, updateItemRequest.getName(),
+                updateItemRequest.getDescription(), updateItemRequest.getAvailable(), 5L);
+    }
+
     @Test
     void shouldFindItem() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
@@ -257,7 +302,7 @@ class ItemServiceImplTest {
     @Test
     void shouldFindItemWithComments() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(commentRepository.findAllByItem_Id(anyLong())).thenReturn(List.of(comment));
+        when(commentRepository.findLatestByItemIds(anyList(), anyInt())).thenReturn(List.of(commentView(comment)));
 
         ItemResponseComments expectedResponse = itemMapper.itemToResponseComments(item, List.of(commentMapper.commentToResponse(comment)));
         ItemResponseComments actualResponse = itemService.findItemWithComments(1L);
@@ -265,7 +310,7 @@ class ItemServiceImplTest {
         assertThat(actualResponse).isEqualTo(expectedResponse);
 
         verify(itemRepository, times(1)).findById(1L);
-        verify(commentRepository, times(1)).findAllByItem_Id(1L);
+        verify(commentRepository, times(1)).findLatestByItemIds(List.of(1L), 10);
     }
 
     @Test
@@ -276,48 +321,78 @@ class ItemServiceImplTest {
                 .isInstanceOf(NotFoundException.class);
 
         verify(itemRepository, times(1)).findById(1L);
-        verify(commentRepository, never()).findAllByItem_Id(anyLong());
+        verify(commentRepository, never()).findLatestByItemIds(anyList(), anyInt());
     }
 
     @Test
     void shouldGetAllUserItems() {
-        when(itemRepository.findItemsByOwnerId(anyLong())).thenReturn(List.of(item));
-        when(bookingRepository.findAllByItem_Owner_IdOrderByStartDateDesc(anyLong())).thenReturn(Collections.emptyList());
-        when(commentRepository.findAllByItem_Owner_Id(anyLong())).thenReturn(Collections.emptyList());
+        when(itemRepository.findByOwner_IdOrderByIdAsc(anyLong(), any(ScrollPosition.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(item), ScrollPosition::offset));
+        when(itemBookingSummaryRepository.findBookingDatesByItemIds(anyList(), any(LocalDateTime.class))).thenReturn(Collections.emptyList());
+        when(commentRepository.findLatestByItemIds(anyList(), anyInt())).thenReturn(Collections.emptyList());
 
         List<ItemResponseBookingComments> expectedResponses = List.of(
                 itemMapper.itemToResponseBookingComments(item, null, null, Collections.emptyList())
         );
-        List<ItemResponseBookingComments> actualResponses = itemService.getAllUserItems(1L);
+        List<ItemResponseBookingComments> actualResponses = itemService.getAllUserItems(1L, null, 20).getContent();
 
         assertThat(actualResponses).isEqualTo(expectedResponses);
 
-        verify(itemRepository, times(1)).findItemsByOwnerId(1L);
-        verify(bookingRepository, times(1)).findAllByItem_Owner_IdOrderByStartDateDesc(1L);
-        verify(commentRepository, times(1)).findAllByItem_Owner_Id(1L);
+        verify(itemRepository, times(1)).findByOwner_IdOrderByIdAsc(1L, ScrollPosition.keyset(), Limit.of(20));
+        verify(itemBookingSummaryRepository, times(1)).findBookingDatesByItemIds(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(commentRepository, times(1)).findLatestByItemIds(List.of(1L), 10);
+    }
+
+    @Test
+    void shouldNotLoadBookingsAndCommentsForEmptyUserItemsPage() {
+        when(itemRepository.findByOwner_IdOrderByIdAsc(anyLong(), any(ScrollPosition.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(), ScrollPosition::offset));
+
+        assertThat(itemService.getAllUserItems(1L, null, 20)).isEmpty();
+
+        verify(itemBookingSummaryRepository, never()).findBookingDatesByItemIds(anyList(), any(LocalDateTime.class));
+        verify(commentRepository, never()).findLatestByItemIds(anyList(), anyInt());
+    }
+
+    @Test
+    void shouldGetItemCommentsPage() {
+        when(commentRepository.findByItem_IdOrderByCreationDateDescIdDesc(anyLong(), any(ScrollPosition.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(comment), ScrollPosition::offset));
+
+        List<ItemCommentResponse> actualResponses = itemService.getItemComments(1L, null, 20).getContent();
+
+        assertThat(actualResponses).containsExactly(commentMapper.commentToResponse(comment));
+        verify(commentRepository, times(1)).findByItem_IdOrderByCreationDateDescIdDesc(1L, ScrollPosition.keyset(), Limit.of(20));
+        verify(itemRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void shouldThrowNotFoundExceptionWhenItemNotFoundForGetItemComments() {
+        when(commentRepository.findByItem_IdOrderByCreationDateDescIdDesc(anyLong(), any(ScrollPosition.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(), ScrollPosition::offset));
+        when(itemRepository.existsById(anyLong())).thenReturn(false);
+
+        assertThatThrownBy(() -> itemService.getItemComments(1L, null, 20))
+                .isInstanceOf(NotFoundException.class);
     }
 
     @Test
     void shouldSearchItems() {
-        when(itemRepository.findItemsByNameLikeIgnoreCaseAndAvailableTrue(anyString())).thenReturn(List.of(item));
+        when(itemSearchEngine.search(anyString(), anyInt())).thenReturn(List.of(item));
 
         List<ItemResponse> expectedResponses = List.of(itemMapper.itemToResponse(item));
-        List<ItemResponse> actualResponses = itemService.searchItems("item");
+        List<ItemResponse> actualResponses = itemService.searchItems("item", 20);
 
         assertThat(actualResponses).isEqualTo(expectedResponses);
 
-        verify(itemRepository, times(1)).findItemsByNameLikeIgnoreCaseAndAvailableTrue("item");
+        verify(itemSearchEngine, times(1)).search("item", 20);
     }
 
     @Test
     void shouldAddComment() {
         when(userService.getUser(anyLong())).thenReturn(userResponse);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItem_IdAndBooker_IdAndEndDateBeforeOrderByStartDateDesc(
-                anyLong(),
-                anyLong(),
-                any(LocalDateTime.class))
-        ).thenReturn(List.of(new Booking()));
+        when(completedBookingLookup.hasCompletedBooking(anyLong(), anyLong())).thenReturn(true);
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
 
         MergeCommentResponse expectedResponse = commentMapper.commentToMergeResponse(
@@ -329,8 +404,7 @@ class ItemServiceImplTest {
 
         verify(userService, times(1)).getUser(1L);
         verify(itemRepository, times(1)).findById(1L);
-        verify(bookingRepository, times(1))
-                .findByItem_IdAndBooker_IdAndEndDateBeforeOrderByStartDateDesc(eq(1L), eq(1L), any(LocalDateTime.class));
+        verify(completedBookingLookup, times(1)).hasCompletedBooking(1L, 1L);
         verify(commentRepository, times(1)).save(any(Comment.class));
     }
 
@@ -343,8 +417,7 @@ class ItemServiceImplTest {
 
         verify(userService, never()).getUser(1L);
         verify(itemRepository, times(1)).findById(1L);
-        verify(bookingRepository, never())
-                .findByItem_IdAndBooker_IdAndEndDateBeforeOrderByStartDateDesc(anyLong(), anyLong(), any(LocalDateTime.class));
+        verify(completedBookingLookup, never()).hasCompletedBooking(anyLong(), anyLong());
         verify(commentRepository, never()).save(any(Comment.class));
     }
 
@@ -352,19 +425,14 @@ class ItemServiceImplTest {
     void shouldThrowValidationExceptionWhenAddingCommentWithoutBooking() {
         when(userService.getUser(anyLong())).thenReturn(userResponse);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItem_IdAndBooker_IdAndEndDateBeforeOrderByStartDateDesc(
-                anyLong(),
-                anyLong(),
-                any(LocalDateTime.class))
-        ).thenReturn(Collections.emptyList());
+        when(completedBookingLookup.hasCompletedBooking(anyLong(), anyLong())).thenReturn(false);
 
         assertThatThrownBy(() -> itemService.addComment(createCommentRequest, 1L, 1L))
                 .isInstanceOf(ValidationException.class);
 
         verify(userService, times(1)).getUser(1L);
         verify(itemRepository, times(1)).findById(1L);
-        verify(bookingRepository, times(1))
-                .findByItem_IdAndBooker_IdAndEndDateBeforeOrderByStartDateDesc(eq(1L), eq(1L), any(LocalDateTime.class));
+        verify(completedBookingLookup, times(1)).hasCompletedBooking(1L, 1L);
     }
 
     @Test
@@ -378,4 +446,33 @@ class ItemServiceImplTest {
 
         verify(itemRepository, times(1)).findItemsByRequest_IdIn(List.of(1L));
     }
-}
\ No newline at end of file
+
+    private static ItemCommentView commentView(Comment comment) {
+        return new ItemCommentView() {
+            @Override
+            public Long getId() {
+                return comment.getId();
+            }
+
+            @Override
+            public Long getItemId() {
+                return comment.getItem().getId();
+            }
+
+            @Override
+            public String getText() {
+                return comment.getText();
+            }
+
+            @Override
+            public String getAuthorName() {
+                return comment.getAuthor().getName();
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return comment.getCreationDate();
+            }
+        };
+    }
+}
@@ -19,7 +19,7 @@ public class MergeCommentResponseJsonTest {
     @Test
     void testMergeCommentResponseSerialization() throws Exception {
         LocalDateTime createdAt = LocalDateTime.of(2023, 10, 1, 12, 0);
-        ItemResponse item = new ItemResponse(1L, "Item 1", "Description 1", true, 123L, null);
+        ItemResponse item = new ItemResponse(1L, "Item 1", "Description 1", true, 123L, null, null);
 
         MergeCommentResponse response = MergeCommentResponse.builder()
                 .id(1L)
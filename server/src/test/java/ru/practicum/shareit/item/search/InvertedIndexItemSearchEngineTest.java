@@ -0,0 +1,139 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvertedIndexItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private InvertedIndexItemSearchEngine searchEngine;
+
+    private final Map<Long, Item> items = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        List<IndexedItem> indexedItems = new ArrayList<>();
+        for (Item item : List.of(
+                item(1L, "Electric drill", true),
+                item(2L, "Drill press", true),
+                item(3L, "Hammer", true),
+                item(4L, "Cordless drill-driver", true))) {
+            items.put(item.getId(), item);
+            indexedItems.add(new IndexedItem() {
+                @Override
+                public Long getId() {
+                    return item.getId();
+                }
+
+                @Override
+                public String getName() {
+                    return item.getName();
+                }
+            });
+        }
+        when(itemRepository.findByAvailableTrue()).thenReturn(indexedItems);
+        lenient().when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                found.add(items.get(id));
+            }
+            return found;
+        });
+
+        searchEngine.build();
+    }
+
+    @Test
+    void shouldFindItemsByTokenPrefix() {
+        assertThat(searchEngine.search("dri", 10)).extracting(Item::getId).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    void shouldFindItemsBySubstringInsideToken() {
+        assertThat(searchEngine.search("rill", 10)).extracting(Item::getId).containsExactly(1L, 2L, 4L);
+        assertThat(searchEngine.search("amm", 10)).extracting(Item::getId).containsExactly(3L);
+    }
+
+    @Test
+    void shouldMatchRepeatedSubstringOnce() {
+        Item banana = item(5L, "Banana stand", true);
+        items.put(banana.getId(), banana);
+        searchEngine.index(banana);
+
+        assertThat(searchEngine.search("an", 10)).extracting(Item::getId).containsExactly(5L);
+        assertThat(searchEngine.search("ana", 10)).extracting(Item::getId).containsExactly(5L);
+    }
+
+    @Test
+    void shouldIntersectQueryTokens() {
+        assertThat(searchEngine.search("drill DRIVER", 10)).extracting(Item::getId).containsExactly(4L);
+    }
+
+    @Test
+    void shouldFetchOnlyRequestedPage() {
+        assertThat(searchEngine.search("drill", 2)).extracting(Item::getId).containsExactly(1L, 2L);
+
+        verify(itemRepository, times(1)).findAllById(List.of(1L, 2L));
+    }
+
+    @Test
+    void shouldFillPageWhenIndexedItemBecameUnavailable() {
+        items.get(1L).setAvailable(false);
+
+        assertThat(searchEngine.search("drill", 2)).extracting(Item::getId).containsExactly(2L, 4L);
+        assertThat(searchEngine.search("electric", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldNotQueryDatabaseWhenNothingMatches() {
+        assertThat(searchEngine.search("saw", 10)).isEmpty();
+        assertThat(searchEngine.search(" ", 10)).isEmpty();
+
+        verify(itemRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void shouldReindexUpdatedAndNewItems() {
+        Item renamed = items.get(3L);
+        renamed.setName("Sledge hammer");
+        searchEngine.index(renamed);
+        Item unavailable = items.get(2L);
+        unavailable.setAvailable(false);
+        searchEngine.index(unavailable);
+        Item created = item(5L, "Hammer drill", true);
+        items.put(created.getId(), created);
+        searchEngine.index(created);
+
+        assertThat(searchEngine.search("sledge", 10)).extracting(Item::getId).containsExactly(3L);
+        assertThat(searchEngine.search("drill", 10)).extracting(Item::getId).containsExactly(1L, 4L, 5L);
+        assertThat(searchEngine.search("hammer", 10)).extracting(Item::getId).containsExactly(3L, 5L);
+    }
+
+    private Item item(Long id, String name, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(name + " description");
+        item.setAvailable(available);
+        return item;
+    }
+}
@@ -0,0 +1,201 @@
+package ru.practicum.shareit.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.CreateBookingRequest;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CreateItemRequest;
+import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.CreateUserRequest;
+import ru.practicum.shareit.user.dto.UserResponse;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shareit-outbox",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=shareit",
+        "spring.datasource.password=shareit",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "shareit.outbox.poll-interval=PT1H",
+        "shareit.outbox.initial-backoff=PT20M",
+        "shareit.outbox.max-backoff=PT1H"
+})
+class OutboxDispatcherIntegrationTest {
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RecordingSink recordingSink;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private UserResponse ownerResponse;
+
+    @BeforeEach
+    void setUp() {
+        recordingSink.failure = null;
+        ownerResponse = userService.createUser(CreateUserRequest.builder()
+                .name("owner")
+                .email(UUID.randomUUID() + "@example.com")
+                .build());
+    }
+
+    @Test
+    void shouldDeliverBookingLifecycleEventsToSinksAndMarkThemProcessed() {
+        UserResponse bookerResponse = userService.createUser(CreateUserRequest.builder()
+                .name("booker")
+                .email(UUID.randomUUID() + "@example.com")
+                .build());
+        ItemResponse itemResponse = createItem();
+        BookingResponse bookingResponse = bookingService.createBooking(CreateBookingRequest.builder()
+                .itemId(itemResponse.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), bookerResponse.getId());
+        bookingService.setApproved(bookingResponse.getId(), true, ownerResponse.getId());
+
+        outboxDispatcher.dispatchPendingEvents();
+
+        await(() -> outboxEventRepository.findAll().stream()
+                .filter(event -> isBookingEvent(event, bookingResponse.getId()))
+                .allMatch(event -> event.getProcessedAt() != null));
+        assertThat(recordingSink.events)
+                .filteredOn(event -> isBookingEvent(event, bookingResponse.getId()))
+                .extracting(OutboxEvent::getEventType)
+                .containsExactlyInAnyOrder(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_APPROVED);
+        assertThat(recordingSink.events)
+                .filteredOn(event -> event.getEventType() == OutboxEventType.ITEM_CREATED
+                        && event.getAggregateId().equals(itemResponse.getId()))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getPayload()).contains("\"name\":\"outbox item\""));
+    }
+
+    @Test
+    void shouldRescheduleEventWhenSinkFails() {
+        recordingSink.failure = new IllegalStateException("sink is down");
+        ItemResponse itemResponse = createItem();
+
+        outboxDispatcher.dispatchPendingEvents();
+
+        await(() -> findItemCreatedEvent(itemResponse.getId()).getAttempts() == 1);
+        OutboxEvent event = findItemCreatedEvent(itemResponse.getId());
+        assertThat(event.getProcessedAt()).isNull();
+        assertThat(event.getNextAttemptAt()).isAfter(LocalDateTime.now().plusMinutes(15));
+        assertThat(event.getLastError()).contains("sink is down");
+    }
+
+    @Test
+    void shouldDeliverEachEventOnceWhenPollsRunConcurrently() {
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            itemIds.add(createItem().getId());
+        }
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<CompletableFuture<Void>> polls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            polls.add(CompletableFuture.runAsync(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                outboxDispatcher.dispatchPendingEvents();
+            }));
+        }
+        startLatch.countDown();
+        CompletableFuture.allOf(polls.toArray(CompletableFuture[]::new)).join();
+        outboxDispatcher.dispatchPendingEvents();
+
+        await(() -> itemIds.stream().allMatch(itemId -> findItemCreatedEvent(itemId).getProcessedAt() != null));
+        assertThat(recordingSink.events)
+                .filteredOn(event -> event.getEventType() == OutboxEventType.ITEM_CREATED
+                        && itemIds.contains(event.getAggregateId()))
+                .extracting(OutboxEvent::getAggregateId)
+                .containsExactlyInAnyOrderElementsOf(itemIds);
+        assertThat(itemIds).allSatisfy(itemId -> assertThat(findItemCreatedEvent(itemId).getAttempts()).isEqualTo(1));
+    }
+
+    private ItemResponse createItem() {
+        return itemService.createItem(CreateItemRequest.builder()
+                .name("outbox item")
+                .description("outbox item description")
+                .available(true)
+                .build(), ownerResponse.getId());
+    }
+
+    private static boolean isBookingEvent(OutboxEvent event, Long bookingId) {
+        return event.getAggregateId().equals(bookingId)
+                && (event.getEventType() == OutboxEventType.BOOKING_CREATED || event.getEventType() == OutboxEventType.BOOKING_APPROVED);
+    }
+
+    private OutboxEvent findItemCreatedEvent(Long itemId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getEventType() == OutboxEventType.ITEM_CREATED && event.getAggregateId().equals(itemId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("outbox delivery timed out").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    static class RecordingSink implements OutboxSink {
+        private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+        private volatile RuntimeException failure;
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (failure != null) {
+                throw failure;
+            }
+            events.add(event);
+        }
+    }
+
+    @TestConfiguration
+    static class SinkConfiguration {
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.ItemResponse;
@@ -102,9 +104,11 @@ public class ItemRequestControllerTest {
 
         List<RequestResponse> requests = Collections.singletonList(requestResponse);
 
-        Mockito.when(requestService.findAllRequests()).thenReturn(requests);
+        Mockito.when(requestService.findAllRequests(Mockito.eq(2L), Mockito.isNull(), Mockito.eq(20)))
+                .thenReturn(Window.from(requests, ScrollPosition::offset));
 
         mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 2L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1L))
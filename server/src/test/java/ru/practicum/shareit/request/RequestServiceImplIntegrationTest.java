@@ -1,15 +1,18 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.data.domain.Window;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CreateItemRequest;
 import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.RequestCreateDto;
 import ru.practicum.shareit.request.dto.RequestResponse;
 import ru.practicum.shareit.request.dto.RequestWithAnswersResponse;
@@ -18,6 +21,7 @@ import ru.practicum.shareit.user.dto.CreateUserRequest;
 import ru.practicum.shareit.user.dto.UserResponse;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -46,6 +50,9 @@ class RequestServiceImplIntegrationTest {
     @Autowired
     private RequestRepository requestRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private UserResponse userResponse;
     private ItemResponse itemResponse;
 
@@ -112,8 +119,9 @@ class RequestServiceImplIntegrationTest {
                 .description("test description")
                 .build();
         RequestResponse requestResponse = requestService.createRequest(requestCreateDto, userResponse.getId());
+        UserResponse otherUser = createOtherUser();
 
-        List<RequestResponse> allRequests = requestService.findAllRequests();
+        List<RequestResponse> allRequests = requestService.findAllRequests(otherUser.getId(), null, 20).getContent();
 
         assertThat(allRequests).hasSize(1);
         assertThat(allRequests.get(0).getId()).isEqualTo(requestResponse.getId());
@@ -121,6 +129,48 @@ class RequestServiceImplIntegrationTest {
         assertThat(allRequests.get(0).getRequesterId()).isEqualTo(userResponse.getId());
     }
 
+    @Test
+    void shouldNotFindOwnRequestsInAllRequests() {
+        RequestCreateDto requestCreateDto = RequestCreateDto.builder()
+                .description("test description")
+                .build();
+        requestService.createRequest(requestCreateDto, userResponse.getId());
+
+        assertThat(requestService.findAllRequests(userResponse.getId(), null, 20).getContent()).isEmpty();
+    }
+
+    @Test
+    void shouldPageAllRequestsByCursor() {
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            RequestCreateDto requestCreateDto = RequestCreateDto.builder()
+                    .description("request " + i)
+                    .build();
+            createdIds.add(0, requestService.createRequest(requestCreateDto, userResponse.getId()).getId());
+        }
+        UserResponse otherUser = createOtherUser();
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            Window<RequestResponse> page = requestService.findAllRequests(otherUser.getId(), cursor, 2);
+            assertThat(page.size()).isLessThanOrEqualTo(2);
+            page.forEach(request -> pagedIds.add(request.getId()));
+            cursor = KeysetCursor.toResponse(page).getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertThat(pagedIds).containsExactlyElementsOf(createdIds);
+    }
+
+    private UserResponse createOtherUser() {
+        return userService.createUser(CreateUserRequest.builder()
+                .name("other user")
+                .email("other@example.com")
+                .build());
+    }
+
     @Test
     void shouldFindRequestById() {
         RequestCreateDto requestCreateDto = RequestCreateDto.builder()
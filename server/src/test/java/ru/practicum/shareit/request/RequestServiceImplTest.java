@@ -8,6 +8,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.service.ItemService;
@@ -148,16 +151,17 @@ class RequestServiceImplTest {
 
     @Test
     void shouldFindAllRequests() {
-        when(requestRepository.findAllByOrderByCreationDateDesc()).thenReturn(List.of(request));
+        when(requestRepository.findByRequester_IdNotOrderByCreationDateDescIdDesc(anyLong(), any(ScrollPosition.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(request), ScrollPosition::offset));
 
-        List<RequestResponse> actualResponses = requestService.findAllRequests();
+        List<RequestResponse> actualResponses = requestService.findAllRequests(2L, null, 20).getContent();
 
         Assertions.assertThat(actualResponses)
                 .hasSize(1)
                 .usingRecursiveFieldByFieldElementComparatorIgnoringFields("created")
                 .containsExactlyInAnyOrder(requestResponse);
 
-        verify(requestRepository, times(1)).findAllByOrderByCreationDateDesc();
+        verify(requestRepository, times(1)).findByRequester_IdNotOrderByCreationDateDescIdDesc(2L, ScrollPosition.keyset(), Limit.of(20));
     }
 
     @Test
@@ -22,8 +22,8 @@ public class RequestWithAnswersResponseJsonTest {
     void testRequestWithAnswersResponseSerialization() throws Exception {
         LocalDateTime createdAt = LocalDateTime.of(2023, 10, 1, 12, 0);
         List<ItemResponse> items = List.of(
-                new ItemResponse(1L, "Item 1 test", "description 1 test", false, 1L, 1L),
-                new ItemResponse(2L, "Item 2 test", "description 2 test", true, 2L, 2L)
+                new ItemResponse(1L, "Item 1 test", "description 1 test", false, 1L, 1L, null),
+                new ItemResponse(2L, "Item 2 test", "description 2 test", true, 2L, 2L, null)
         );
 
         RequestWithAnswersResponse response = RequestWithAnswersResponse.builder()
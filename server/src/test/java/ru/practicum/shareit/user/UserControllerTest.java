@@ -6,6 +6,8 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.dto.CreateUserRequest;
@@ -13,9 +15,10 @@ import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserResponse;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.sql.SQLException;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
 public class UserControllerTest {
@@ -66,12 +69,16 @@ public class UserControllerTest {
                 .email("updated_test@example.com")
                 .build();
 
-        Mockito.when(userService.updateUser(Mockito.eq(1L), Mockito.any(UpdateUserRequest.class))).thenReturn(userResponse);
+        userResponse.setVersion(3L);
+        Mockito.when(userService.updateUser(Mockito.eq(1L), Mockito.any(UpdateUserRequest.class), Mockito.eq(2L))).thenReturn(userResponse);
 
         mockMvc.perform(patch("/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updateUserRequest)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version").doesNotExist())
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.name").value("updated test name"))
                 .andExpect(jsonPath("$.email").value("updated_test@example.com"));
@@ -103,4 +110,30 @@ public class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdateUserWithUniqueViolation() throws Exception {
+        Mockito.when(userService.updateUser(Mockito.eq(1L), Mockito.any(UpdateUserRequest.class), Mockito.isNull()))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement [update users set ...]",
+                        new SQLException("Unique index or primary key violation: USERS_PHONE_KEY", "23505")));
+
+        mockMvc.perform(patch("/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UpdateUserRequest.builder().name("name").build())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Data conflicts with an existing record"));
+    }
+
+    @Test
+    void testUpdateUserWithNotNullViolation() throws Exception {
+        Mockito.when(userService.updateUser(Mockito.eq(1L), Mockito.any(UpdateUserRequest.class), Mockito.isNull()))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement [update users set ...]",
+                        new SQLException("NULL not allowed for column NAME", "23502")));
+
+        mockMvc.perform(patch("/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UpdateUserRequest.builder().name("name").build())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Data violates a constraint"));
+    }
+}
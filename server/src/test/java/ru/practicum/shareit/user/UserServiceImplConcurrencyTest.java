@@ -0,0 +1,73 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.exception.exceptions.EmailAlreadyExistsException;
+import ru.practicum.shareit.user.dto.CreateUserRequest;
+import ru.practicum.shareit.user.service.impl.UserServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shareit-user-concurrency",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=shareit",
+        "spring.datasource.password=shareit",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class UserServiceImplConcurrencyTest {
+    private static final int ATTEMPTS = 100;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldAcceptExactlyOneOfConcurrentSignupsWithSameEmail() throws Exception {
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Throwable>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+                CreateUserRequest request = CreateUserRequest.builder()
+                        .name("user " + attempt)
+                        .email("race@example.com")
+                        .build();
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        userService.createUser(request);
+                        return null;
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            startGate.countDown();
+
+            List<Throwable> results = new ArrayList<>();
+            for (Future<Throwable> future : futures) {
+                results.add(future.get());
+            }
+
+            assertThat(results).filteredOn(result -> result == null).hasSize(1);
+            assertThat(results).filteredOn(result -> result != null)
+                    .hasSize(ATTEMPTS - 1)
+                    .allSatisfy(result -> assertThat(result).isInstanceOf(EmailAlreadyExistsException.class));
+        }
+        assertThat(userRepository.findAll())
+                .filteredOn(user -> user.getEmail().equals("race@example.com"))
+                .hasSize(1);
+    }
+}
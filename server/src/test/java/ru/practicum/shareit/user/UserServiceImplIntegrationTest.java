@@ -3,10 +3,15 @@ package ru.practicum.shareit.user;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.exceptions.EmailAlreadyExistsException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
+import ru.practicum.shareit.exception.exceptions.VersionConflictException;
 import ru.practicum.shareit.user.dto.CreateUserRequest;
 import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserResponse;
@@ -32,6 +37,9 @@ class UserServiceImplIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private CreateUserRequest createUserRequest;
     private UpdateUserRequest updateUserRequest;
 
@@ -76,7 +84,7 @@ class UserServiceImplIntegrationTest {
     @Test
     void shouldUpdateUser() {
         UserResponse createdUser = userService.createUser(createUserRequest);
-        UserResponse updatedUser = userService.updateUser(createdUser.getId(), updateUserRequest);
+        UserResponse updatedUser = userService.updateUser(createdUser.getId(), updateUserRequest, null);
 
         assertThat(updatedUser.getId()).isEqualTo(createdUser.getId());
         assertThat(updatedUser.getName()).isEqualTo("update name");
@@ -87,6 +95,20 @@ class UserServiceImplIntegrationTest {
         assertThat(savedUser.getEmail()).isEqualTo("update@example.com");
     }
 
+    @Test
+    void shouldThrowVersionConflictExceptionWhenUpdatingUserWithStaleVersion() {
+        UserResponse createdUser = userService.createUser(createUserRequest);
+        UserResponse updatedUser = userService.updateUser(createdUser.getId(),
+                UpdateUserRequest.builder().name("first").build(), createdUser.getVersion());
+
+        assertThat(updatedUser.getVersion()).isEqualTo(createdUser.getVersion() + 1);
+        assertThat(updatedUser.getEmail()).isEqualTo("test@example.com");
+        assertThatThrownBy(() -> userService.updateUser(createdUser.getId(),
+                UpdateUserRequest.builder().name("second").build(), createdUser.getVersion()))
+                .isInstanceOf(VersionConflictException.class);
+        assertThat(userRepository.findById(createdUser.getId()).orElseThrow().getName()).isEqualTo("first");
+    }
+
     @Test
     void shouldThrowEmailAlreadyExistsExceptionWhenUpdatingUserWithExistingEmail() {
         UserResponse firstUser = userService.createUser(createUserRequest);
@@ -101,7 +123,7 @@ class UserServiceImplIntegrationTest {
                 .email("second@example.com")
                 .build();
 
-        assertThatThrownBy(() -> userService.updateUser(firstUser.getId(), updateRequestWithExistingEmail))
+        assertThatThrownBy(() -> userService.updateUser(firstUser.getId(), updateRequestWithExistingEmail, null))
                 .isInstanceOf(EmailAlreadyExistsException.class);
     }
 
@@ -129,4 +151,39 @@ class UserServiceImplIntegrationTest {
         assertThatThrownBy(() -> userService.getUser(createdUser.getId()))
                 .isInstanceOf(NotFoundException.class);
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldCacheUserAndKeepCacheCurrentOnUpdateAndDelete() {
+        Cache users = cacheManager.getCache("users");
+        UserResponse createdUser = userService.createUser(CreateUserRequest.builder()
+                .name("cached name")
+                .email("cached@example.com")
+                .build());
+
+        userService.getUser(createdUser.getId());
+        assertThat(users.get(createdUser.getId(), UserResponse.class)).isEqualTo(createdUser);
+
+        UserResponse updatedUser = userService.updateUser(createdUser.getId(), UpdateUserRequest.builder()
+                .name("cached update")
+                .email("cached-update@example.com")
+                .build(), null);
+        assertThat(users.get(createdUser.getId(), UserResponse.class)).isEqualTo(updatedUser);
+        assertThat(userService.getUser(createdUser.getId())).isEqualTo(updatedUser);
+
+        userService.deleteUser(createdUser.getId());
+        assertThat(users.get(createdUser.getId())).isNull();
+    }
+
+    @Test
+    void shouldNotCacheUpdatedUserWhenTransactionRollsBack() {
+        Cache users = cacheManager.getCache("users");
+        UserResponse createdUser = userService.createUser(createUserRequest);
+        TestTransaction.flagForRollback();
+
+        userService.updateUser(createdUser.getId(), updateUserRequest, null);
+        TestTransaction.end();
+
+        assertThat(users.get(createdUser.getId())).isNull();
+    }
 }
\ No newline at end of file
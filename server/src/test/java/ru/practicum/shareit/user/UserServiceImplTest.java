@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,8 +9,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import ru.practicum.shareit.exception.exceptions.EmailAlreadyExistsException;
 import ru.practicum.shareit.exception.exceptions.NotFoundException;
+import ru.practicum.shareit.exception.exceptions.VersionConflictException;
 import ru.practicum.shareit.user.dto.CreateUserRequest;
 import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserResponse;
@@ -61,39 +64,53 @@ public class UserServiceImplTest {
 
     @Test
     void shouldCreateUser() {
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
         UserResponse actualResponse = userService.createUser(createUserRequest);
         assertThat(actualResponse).isEqualTo(userResponse);
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
     }
 
     @Test
     void shouldThrowEmailAlreadyExistsExceptionWhenCreatingUserWithExistingEmail() {
-        when(userRepository.existsByEmail(any(String.class))).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(emailViolation());
         assertThatThrownBy(() -> userService.createUser(createUserRequest))
                 .isInstanceOf(EmailAlreadyExistsException.class);
-        verify(userRepository, never()).save(any(User.class));
-        verify(userRepository, times(1)).existsByEmail(any(String.class));
+    }
+
+    @Test
+    void shouldRethrowOtherIntegrityViolationsWhenCreatingUser() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("name is null",
+                new ConstraintViolationException("name is null", null, "users_name_not_null"));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+        assertThatThrownBy(() -> userService.createUser(createUserRequest))
+                .isSameAs(violation);
     }
 
     @Test
     void shouldUpdateUser() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
-        UserResponse actualResponse = userService.updateUser(user.getId(), updateUserRequest);
+        when(userRepository.updatePartially(user.getId(), updateUserRequest.getName(), updateUserRequest.getEmail())).thenReturn(1);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(updatedUser));
+        UserResponse actualResponse = userService.updateUser(user.getId(), updateUserRequest, null);
         assertThat(actualResponse).isEqualTo(updatedResponse);
         verify(userRepository, times(1)).findById(anyLong());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void shouldThrowVersionConflictExceptionWhenUpdatingUserWithStaleVersion() {
+        when(userRepository.updatePartiallyIfVersion(user.getId(), updateUserRequest.getName(), updateUserRequest.getEmail(), 0L)).thenReturn(0);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(updatedUser));
+        assertThatThrownBy(() -> userService.updateUser(user.getId(), updateUserRequest, 0L))
+                .isInstanceOf(VersionConflictException.class);
     }
 
     @Test
     void shouldThrowEmailAlreadyExistsExceptionWhenUpdatingUserWithExistingEmail() {
-        when(userRepository.existsByEmail(any(String.class))).thenReturn(true);
-        assertThatThrownBy(() -> userService.updateUser(user.getId(), updateUserRequest))
+        when(userRepository.updatePartially(user.getId(), updateUserRequest.getName(), updateUserRequest.getEmail()))
+                .thenThrow(emailViolation());
+        assertThatThrownBy(() -> userService.updateUser(user.getId(), updateUserRequest, null))
                 .isInstanceOf(EmailAlreadyExistsException.class);
         verify(userRepository, never()).findById(anyLong());
-        verify(userRepository, never()).save(any(User.class));
-        verify(userRepository, times(1)).existsByEmail(any(String.class));
     }
 
     @Test
@@ -107,7 +124,7 @@ public class UserServiceImplTest {
     @Test
     void shouldThrowNotFoundExceptionWhenUpdatingNonExistingUser() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
-        assertThatThrownBy(() -> userService.updateUser(1L, updateUserRequest))
+        assertThatThrownBy(() -> userService.updateUser(1L, updateUserRequest, null))
                 .isInstanceOf(NotFoundException.class);
     }
 
@@ -116,4 +133,9 @@ public class UserServiceImplTest {
         userService.deleteUser(user.getId());
         verify(userRepository, times(1)).deleteById(user.getId());
     }
+
+    private static DataIntegrityViolationException emailViolation() {
+        return new DataIntegrityViolationException("duplicate email",
+                new ConstraintViolationException("duplicate email", null, "users_email_key"));
+    }
 }
\ No newline at end of file